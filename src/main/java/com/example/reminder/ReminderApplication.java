@@ -2,13 +2,11 @@ package com.example.reminder;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableScheduling
-@EnableAsync // it activates async execution for email
 public class ReminderApplication {
 
 	public static void main(String[] args) {
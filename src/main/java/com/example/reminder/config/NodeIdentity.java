@@ -0,0 +1,35 @@
+package com.example.reminder.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Identifies this application instance when several replicas share one database.
+ * Used as owner of reminder claims, so every node only acknowledges its own work.
+ */
+@Component
+public class NodeIdentity {
+
+    private final String id;
+
+    public NodeIdentity(@Value("${app.node-id:}") String configuredId) {
+        this.id = (configuredId == null || configuredId.isBlank()) ? generateId() : configuredId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String generateId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
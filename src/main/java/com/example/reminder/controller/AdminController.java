@@ -4,9 +4,18 @@ import com.example.reminder.dto.*;
 import com.example.reminder.exception.ResourceNotFoundException;
 import com.example.reminder.model.Event;
 import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderOccurrenceRepository;
+import com.example.reminder.repository.ReminderRepository;
 import com.example.reminder.repository.UserRepository;
+import com.example.reminder.service.CalendarCache;
+import com.example.reminder.service.DeadLetterService;
 import com.example.reminder.service.EmailService;
 import com.example.reminder.service.EventService;
+import com.example.reminder.service.MailExecutor;
+import com.example.reminder.service.MailRateLimiter;
+import com.example.reminder.service.ReminderCatchUpService;
+import com.example.reminder.service.ReminderOutboxRelay;
+import com.example.reminder.service.SchedulerLockService;
 import jakarta.validation.constraints.Email;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,8 +39,17 @@ public class AdminController {
 
     private final EventRepository eventRepo;
     private final UserRepository userRepo;
+    private final ReminderRepository reminderRepo;
+    private final ReminderOccurrenceRepository occurrenceRepo;
     private final EmailService emailService;
     private final EventService eventService;
+    private final DeadLetterService deadLetterService;
+    private final ReminderOutboxRelay outboxRelay;
+    private final MailExecutor mailExecutor;
+    private final MailRateLimiter mailRateLimiter;
+    private final ReminderCatchUpService catchUpService;
+    private final SchedulerLockService schedulerLock;
+    private final CalendarCache calendarCache;
 
     @GetMapping("/events/paged")
     @PreAuthorize("hasRole('ADMIN')")
@@ -143,6 +161,8 @@ public class AdminController {
             event.setReminderSent(true);
             event.setReminderSentTime(LocalDateTime.now());
             eventRepo.save(event);
+            // the manual mail replaces the pending reminders of the event
+            reminderRepo.markAllSentForEvent(id, event.getReminderSentTime());
 
             return ResponseEntity.ok(
                     new ApiResponse<>("success", "Reminder sent successfully.",null)
@@ -156,6 +176,42 @@ public class AdminController {
 
     }
 
+    @GetMapping("/reminders/dead-letters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<PageResponse<DeadLetterResponse>>> getDeadLetters(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+
+        var pageResult = deadLetterService.getDeadLetters(page, size);
+
+        PageResponse<DeadLetterResponse> responseData = new PageResponse<>();
+        responseData.setContent(pageResult.getContent().stream().map(DeadLetterResponse::fromEntity).toList());
+        responseData.setCurrentPage(pageResult.getNumber());
+        responseData.setTotalItems(pageResult.getTotalElements());
+        responseData.setTotalPages(pageResult.getTotalPages());
+        responseData.setSize(pageResult.getSize());
+
+        return ResponseEntity.ok(new ApiResponse<>("success", "Dead letters fetched", responseData));
+    }
+
+    @PostMapping("/reminders/dead-letters/{id}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> replayDeadLetter(@PathVariable Long id) {
+        deadLetterService.replay(id);
+        outboxRelay.trigger();
+
+        log.info("Post /api/admin/reminders/dead-letters/{}/replay -> replayed", id);
+        return ResponseEntity.ok(new ApiResponse<>("success", "Dead letter replayed.", null));
+    }
+
+    @GetMapping("/reminders/catch-up")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String,Object>>> getCatchUpProgress() {
+        return ResponseEntity.ok(
+                new ApiResponse<>("success", "Reminder catch-up progress fetched.", catchUpService.progress())
+        );
+    }
+
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Map<String,Object>>> getSystemStats() {
@@ -164,8 +220,8 @@ public class AdminController {
         // Overall Statistics
         stats.put("totalUsers" , userRepo.count());
         stats.put("totalEvents", eventRepo.count());
-        stats.put("totalReminderSent", eventRepo.countByReminderSentTrue());
-        stats.put("totalPendingReminders", eventRepo.countByReminderSentFalse());
+        stats.put("totalReminderSent", reminderRepo.countSent());
+        stats.put("totalPendingReminders", reminderRepo.countPending());
         stats.put("totalEventsLastSevenDays", eventRepo.countEventsCreatedAfter(LocalDateTime.now().minusDays(7)));
 
 
@@ -179,11 +235,19 @@ public class AdminController {
 
         stats.put("countEventsLast7Days", eventRepo.countEventsCreatedAfter(last7Days));
 
-        stats.put("countRemindersSentLast24Hours", eventRepo.countReminderSentAfter(last24Hours));
-        stats.put("countUpcomingRemindersNext24Hours", eventRepo.countReminderSentBetween(now , next24Hours));
+        stats.put("countRemindersSentLast24Hours", reminderRepo.countSentAfter(last24Hours));
+        stats.put("countSeriesRemindersSentLast24Hours", occurrenceRepo.countSentAfter(last24Hours));
+        stats.put("countUpcomingRemindersNext24Hours", reminderRepo.countDueBetween(now , next24Hours));
 
         stats.put("eventsLast7Days", eventService.getEventsPerDay());
 
+        // Mail executor (queue depth, active sends, rejected tasks)
+        stats.put("mailExecutor", mailExecutor.metrics());
+        stats.put("mailRateLimit", mailRateLimiter.metrics());
+        // scheduled jobs this node currently runs for the whole cluster
+        stats.put("schedulerLocksHeld", schedulerLock.heldLocks());
+        stats.put("calendarCache", calendarCache.metrics());
+
         return ResponseEntity.ok(
                 new ApiResponse<>("success", "System stats fetched.",stats)
         );
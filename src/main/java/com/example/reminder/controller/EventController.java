@@ -2,17 +2,23 @@ package com.example.reminder.controller;
 import com.example.reminder.dto.*;
 import com.example.reminder.exception.BadRequestException;
 import com.example.reminder.model.Event;
+import com.example.reminder.model.Reminder;
 import com.example.reminder.exception.ResourceNotFoundException;
 import com.example.reminder.model.User;
 import com.example.reminder.security.AuthContext;
 import com.example.reminder.service.EventService;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cglib.core.Local;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -25,10 +31,14 @@ import java.util.Map;
 public class EventController {
     private final EventService service;
     private final AuthContext authContext;
+    private final ObjectMapper objectMapper;
 
-    public EventController(EventService service,  AuthContext authContext) {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    public EventController(EventService service,  AuthContext authContext, ObjectMapper objectMapper) {
         this.service = service;
         this.authContext =  authContext;
+        this.objectMapper = objectMapper;
     }
 
     /*
@@ -183,6 +193,82 @@ public class EventController {
 
     }
 
+    /*
+    GET /api/events/5/next-occurrences?count=3
+    next dates of one event from today on
+    * */
+    @GetMapping("/{id}/next-occurrences")
+    public ResponseEntity<ApiResponse<NextOccurrencesResponse>> getNextOccurrences(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") Integer count
+    ) {
+        User user = authContext.getCurrentUser();
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                "success" , "Next occurrences fetched" , service.getNextOccurrences(user, id, count)
+        ));
+    }
+
+    /*
+    GET /api/events/next-occurrences?count=1
+    next dates of every running series of the user
+    * */
+    @GetMapping("/next-occurrences")
+    public ResponseEntity<ApiResponse<List<NextOccurrencesResponse>>> getNextOccurrencesOfSeries(
+            @RequestParam(defaultValue = "1") Integer count
+    ) {
+        User user = authContext.getCurrentUser();
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                "success" , "Next occurrences fetched" , service.getNextOccurrencesOfSeries(user, count)
+        ));
+    }
+
+    /*
+    GET /api/events/agenda?limit=50
+    next occurrences from today (or from), in date order; pass nextCursor back as cursor for the next page
+    * */
+    @GetMapping("/agenda")
+    public ResponseEntity<ApiResponse<AgendaPageResponse>> getAgenda(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer limit
+    ) {
+        User user = authContext.getCurrentUser();
+
+        AgendaPageResponse page = service.getAgenda(user, from != null ? from : LocalDate.now(), cursor, limit);
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                "success" , "Agenda fetched" , page
+        ));
+    }
+
+    /*
+    GET /api/events/calendar/stream?start=2026-01-01&end=2026-12-31
+    same occurrences as /calendar, one JSON object per line in date order, written while they are expanded
+    ranges of more than 3660 days are rejected with 400
+    * */
+    @GetMapping(value = "/calendar/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCalendarEvents(
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        service.validateStreamRange(start, end);
+        User user = authContext.getCurrentUser();
+
+        StreamingResponseBody body = out -> service.streamCalendarEvents(user, start, end, occurrence -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(occurrence));
+                out.write('\n');
+            } catch (IOException e) {
+                // client went away, stops the expansion
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @PutMapping("/{id}/move-date")
     public ResponseEntity<ApiResponse<Void>> moveEventDate(
             @PathVariable Long id ,
@@ -221,5 +307,56 @@ public class EventController {
         );
     }
 
+    /**
+     * GET /api/events/{id}/reminders
+     * All reminders of an event, earliest offset first.
+     */
+    @GetMapping("/{id}/reminders")
+    public ResponseEntity<ApiResponse<List<ReminderOffsetResponse>>> getReminders(@PathVariable Long id) {
+        List<ReminderOffsetResponse> reminders = service.getReminders(authContext.getCurrentUser(), id).stream()
+                .map(ReminderOffsetResponse::fromEntity)
+                .toList();
+        log.info("Get /api/events/{}/reminders -> {} items", id, reminders.size());
+        return ResponseEntity.ok(new ApiResponse<>("success", "Reminders retrieved successfully.", reminders));
+    }
+
+    /**
+     * POST /api/events/{id}/reminders
+     * Adds a reminder {offsetMinutes} minutes before the event (every occurrence of a series).
+     * Return 201 after create
+     */
+    @PostMapping("/{id}/reminders")
+    public ResponseEntity<ApiResponse<ReminderOffsetResponse>> addReminder(@PathVariable Long id,
+                                                                       @RequestBody @Valid ReminderOffsetRequest request) {
+        Reminder reminder = service.addReminder(authContext.getCurrentUser(), id, request);
+        log.info("Post /api/events/{}/reminders -> created id={} , offsetMinutes={}",
+                id, reminder.getId(), reminder.getOffsetMinutes());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse<>("success", "Reminder Created", ReminderOffsetResponse.fromEntity(reminder)));
+    }
+
+    /**
+     * PUT /api/events/{id}/reminders/{reminderId}
+     * Changes the offset of a reminder, it fires again for the next occurrence.
+     */
+    @PutMapping("/{id}/reminders/{reminderId}")
+    public ResponseEntity<ApiResponse<ReminderOffsetResponse>> updateReminder(@PathVariable Long id,
+                                                                          @PathVariable Long reminderId,
+                                                                          @RequestBody @Valid ReminderOffsetRequest request) {
+        Reminder reminder = service.updateReminder(authContext.getCurrentUser(), id, reminderId, request);
+        log.info("Put /api/events/{}/reminders/{} -> updated", id, reminderId);
+        return ResponseEntity.ok(new ApiResponse<>("success", "Reminder Updated.",
+                ReminderOffsetResponse.fromEntity(reminder)));
+    }
+
+    /**
+     * DELETE /api/events/{id}/reminders/{reminderId}
+     */
+    @DeleteMapping("/{id}/reminders/{reminderId}")
+    public ResponseEntity<ApiResponse<Void>> deleteReminder(@PathVariable Long id, @PathVariable Long reminderId) {
+        service.deleteReminder(authContext.getCurrentUser(), id, reminderId);
+        log.info("Delete /api/events/{}/reminders/{} -> deleted", id, reminderId);
+        return ResponseEntity.ok(new ApiResponse<>("success", "Reminder Deleted.", null));
+    }
 
 }
@@ -3,7 +3,6 @@ package com.example.reminder.controller;
 import com.example.reminder.dto.ApiResponse;
 import com.example.reminder.dto.EventResponse;
 import com.example.reminder.dto.ReminderResponse;
-import com.example.reminder.model.Event;
 import com.example.reminder.security.AuthContext;
 import com.example.reminder.service.EventService;
 import com.example.reminder.service.ReminderService;
@@ -34,11 +33,7 @@ public class ReminderController {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime threshold = LocalDateTime.now().plusMinutes(minute);
 
-        List<Event> events = reminderService.getAllReminders(currentUser, now, threshold, false);
-
-        List<ReminderResponse> reminderResponses = events.stream()
-                .map(ReminderResponse::fromEntity)
-                .toList();
+        List<ReminderResponse> reminderResponses = reminderService.getAllReminders(currentUser, now, threshold, false);
 
         System.out.println("-------------------------------------");
         System.out.println(reminderResponses);
@@ -52,10 +47,7 @@ public class ReminderController {
         var currentUser = authContext.getCurrentUser();
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime threshold = LocalDateTime.now().plusHours(24);
-        List<Event> events = reminderService.getAllReminders(currentUser, now, threshold , false);
-        List<ReminderResponse> ReminderResponses = events.stream()
-                .map(ReminderResponse::fromEntity)
-                .toList();
+        List<ReminderResponse> ReminderResponses = reminderService.getAllReminders(currentUser, now, threshold, false);
         return ResponseEntity.ok(new ApiResponse<>("success", "Upcoming next 24 hours reminders retrieved" ,
                 ReminderResponses));
     }
@@ -65,10 +57,7 @@ public class ReminderController {
         var currentUser = authContext.getCurrentUser();
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime threshold = LocalDateTime.now().minusHours(24);
-        List<Event> events = reminderService.getAllReminders(currentUser, now, threshold, true);
-        List<ReminderResponse> ReminderResponses = events.stream()
-                .map(ReminderResponse::fromEntity)
-                .toList();
+        List<ReminderResponse> ReminderResponses = reminderService.getAllReminders(currentUser, now, threshold, true);
         return ResponseEntity.ok(new ApiResponse<>("success", "Sent reminders in last 24 hours " +
                 "retrieved" , ReminderResponses));
     }
@@ -0,0 +1,16 @@
+package com.example.reminder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AgendaPageResponse {
+    private List<EventResponse> items;
+    // pass back as cursor for the next page, null on the last page
+    private String nextCursor;
+}
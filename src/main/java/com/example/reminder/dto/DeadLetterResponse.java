@@ -0,0 +1,36 @@
+package com.example.reminder.dto;
+
+import com.example.reminder.model.ReminderDeadLetter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterResponse {
+    private Long id;
+    private Long eventId;
+    private LocalDate occurrenceDate;
+    private String recipient;
+    private String subject;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime failedAt;
+
+    public static DeadLetterResponse fromEntity(ReminderDeadLetter d) {
+        return new DeadLetterResponse(
+                d.getId(),
+                d.getEventId(),
+                d.getOccurrenceDate(),
+                d.getRecipient(),
+                d.getSubject(),
+                d.getAttempts(),
+                d.getLastError(),
+                d.getFailedAt()
+        );
+    }
+}
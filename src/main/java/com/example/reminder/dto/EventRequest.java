@@ -3,6 +3,7 @@ package com.example.reminder.dto;
 import com.example.reminder.model.RecurrenceType;
 import com.example.reminder.validation.ReminderBeforeEvent;
 import com.example.reminder.validation.TomorrowOrLater;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -35,4 +37,8 @@ public class EventRequest {
     private Integer recurrenceInterval;
     private LocalDate recurrenceEndDate;
 
+    // several reminders per event, reminderTime alone still creates a single one
+    @Valid
+    private List<ReminderOffsetRequest> reminders;
+
 }
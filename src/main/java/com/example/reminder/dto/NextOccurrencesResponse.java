@@ -0,0 +1,17 @@
+package com.example.reminder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NextOccurrencesResponse {
+    private Long eventId;
+    private String title;
+    private List<LocalDate> dates;
+}
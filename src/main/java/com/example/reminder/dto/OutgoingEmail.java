@@ -0,0 +1,27 @@
+package com.example.reminder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One HTML mail of a batch. referenceId ties it back to what triggered it (e.g. the event id),
+ * so the caller can tell which mails of a batch were actually delivered.
+ * error is filled by EmailService when the mail could not be sent, transportFailure when that was
+ * because the server could not be reached at all (and not a rejection of this mail).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutgoingEmail {
+    private Long referenceId;
+    private String to;
+    private String subject;
+    private String htmlBody;
+    private String error;
+    private boolean transportFailure;
+
+    public OutgoingEmail(Long referenceId, String to, String subject, String htmlBody) {
+        this(referenceId, to, subject, htmlBody, null, false);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.reminder.dto;
+
+import com.example.reminder.model.RecurrenceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Everything the reminder dispatcher needs for one due reminder,
+ * read together with the recipient email in a single query.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReminderDispatchView {
+    private Long reminderId;
+    private Long eventId;
+    private String title;
+    // the occurrence this reminder is for
+    private LocalDate eventDate;
+    private String description;
+    // fire time of the reminder
+    private LocalDateTime reminderTime;
+
+    private Long userId;
+    private String recipientEmail;
+
+    private RecurrenceType recurrenceType;
+    private Integer recurrenceInterval;
+    private LocalDate recurrenceEndDate;
+}
@@ -0,0 +1,20 @@
+package com.example.reminder.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReminderOffsetRequest {
+
+    // minutes before the start (midnight) of the occurrence
+    @NotNull(message = "Reminder offset is required.")
+    @Positive(message = "Reminder offset must be positive.")
+    @Max(value = 525600, message = "Reminder offset must be at most one year.")
+    private Integer offsetMinutes;
+}
@@ -0,0 +1,33 @@
+package com.example.reminder.dto;
+
+import com.example.reminder.model.Reminder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReminderOffsetResponse {
+    private Long id;
+    private int offsetMinutes;
+    // occurrence the reminder fires for next
+    private LocalDate occurrenceDate;
+    private LocalDateTime fireAt;
+    private boolean sent;
+    private LocalDateTime sentTime;
+
+    public static ReminderOffsetResponse fromEntity(Reminder r) {
+        return new ReminderOffsetResponse(
+                r.getId(),
+                r.getOffsetMinutes(),
+                r.getOccurrenceDate(),
+                r.getFireAt(),
+                r.isSent(),
+                r.getSentTime()
+        );
+    }
+}
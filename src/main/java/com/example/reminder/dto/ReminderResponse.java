@@ -1,6 +1,7 @@
 package com.example.reminder.dto;
 
 import com.example.reminder.model.Event;
+import com.example.reminder.model.Reminder;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,15 @@ public class ReminderResponse {
                 e.getReminderTime()
         );
     }
+
+    // one reminder of an event: the occurrence it is for and when it fires
+    public static ReminderResponse fromReminder(Reminder r, Event e) {
+        return new ReminderResponse(
+                e.getId(),
+                e.getTitle(),
+                e.getDescription(),
+                r.getOccurrenceDate(),
+                r.getFireAt()
+        );
+    }
 }
\ No newline at end of file
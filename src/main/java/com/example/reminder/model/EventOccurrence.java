@@ -0,0 +1,46 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * One date an event is shown on in the calendar: a single event, a moved occurrence, or one occurrence
+ * of a series. Generated up to a rolling horizon, so a calendar range is one scan of
+ * uk_event_occurrence_user_date no matter how long the series of the user already run.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "event_occurrences",
+        uniqueConstraints = @UniqueConstraint(name = "uk_event_occurrence_user_date",
+                columnNames = {"userId", "occurrenceDate", "eventId"}),
+        indexes = @Index(name = "idx_event_occurrence_event", columnList = "eventId"))
+public class EventOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate occurrenceDate;
+
+    // the event shown, for a series occurrence its master
+    @Column(nullable = false)
+    private Long eventId;
+
+    public EventOccurrence(Long userId, LocalDate occurrenceDate, Long eventId) {
+        this.userId = userId;
+        this.occurrenceDate = occurrenceDate;
+        this.eventId = eventId;
+    }
+}
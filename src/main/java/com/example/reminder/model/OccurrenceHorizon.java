@@ -0,0 +1,28 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * How far event_occurrences are generated for a user. Users without a row are not materialized yet,
+ * their calendar is expanded on the fly until the first read builds it.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "occurrence_horizons")
+public class OccurrenceHorizon {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate materializedUntil;
+}
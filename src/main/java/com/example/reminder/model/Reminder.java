@@ -0,0 +1,58 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One reminder of an event, an event can have several (e.g. one day and one hour before).
+ * The dispatcher only scans this narrow table through idx_reminder_due, never the events rows.
+ * For a recurring series fireAt/occurrenceDate point at the next occurrence still to be reminded.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminders",
+        indexes = {
+                @Index(name = "idx_reminder_due", columnList = "sent, fireAt"),
+                @Index(name = "idx_reminder_event", columnList = "eventId")
+        })
+public class Reminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    // minutes before the start (midnight) of the occurrence
+    @Column(nullable = false)
+    private int offsetMinutes;
+
+    private LocalDate occurrenceDate;
+    private LocalDateTime fireAt;
+
+    private boolean sent = false;
+    private LocalDateTime sentTime;
+
+    // lease taken by one node while it dispatches this reminder
+    private String claimOwner;
+    private LocalDateTime claimExpiry;
+
+    public Reminder(Long eventId, int offsetMinutes) {
+        this.eventId = eventId;
+        this.offsetMinutes = offsetMinutes;
+    }
+
+    public static LocalDateTime fireTimeFor(LocalDate occurrenceDate, int offsetMinutes) {
+        return occurrenceDate.atStartOfDay().minusMinutes(offsetMinutes);
+    }
+}
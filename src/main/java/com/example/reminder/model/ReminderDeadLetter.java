@@ -0,0 +1,78 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reminder mail that still failed after the maximum number of attempts.
+ * Kept for admins, who can list it and put it back into the outbox.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminder_dead_letters")
+public class ReminderDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    private LocalDate occurrenceDate;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String htmlBody;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+
+    // ReminderOutbox.itemKeys of the mail, given back to it on replay
+    @ElementCollection
+    @CollectionTable(name = "reminder_dead_letter_items", joinColumns = @JoinColumn(name = "dead_letter_id"))
+    @Column(name = "item_key", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private List<String> itemKeys = new ArrayList<>();
+
+    public static ReminderDeadLetter fromOutbox(ReminderOutbox o, List<String> itemKeys) {
+        return new ReminderDeadLetter(
+                null,
+                o.getIdempotencyKey(),
+                o.getEventId(),
+                o.getOccurrenceDate(),
+                o.getRecipient(),
+                o.getSubject(),
+                o.getHtmlBody(),
+                o.getAttempts(),
+                o.getLastError(),
+                LocalDateTime.now(),
+                new ArrayList<>(itemKeys)
+        );
+    }
+}
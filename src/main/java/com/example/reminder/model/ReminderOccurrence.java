@@ -0,0 +1,43 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Reminder sent for one occurrence of a recurring series.
+ * The series itself stays a single Event row whose reminder is moved on to the next occurrence,
+ * so no follow-up events are created per firing.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminder_occurrences",
+        indexes = @Index(name = "idx_reminder_occurrence_master", columnList = "masterEventId, occurrenceDate"))
+public class ReminderOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long masterEventId;
+
+    @Column(nullable = false)
+    private LocalDate occurrenceDate;
+
+    private LocalDateTime sentTime;
+
+    public ReminderOccurrence(Long masterEventId, LocalDate occurrenceDate, LocalDateTime sentTime) {
+        this.masterEventId = masterEventId;
+        this.occurrenceDate = occurrenceDate;
+        this.sentTime = sentTime;
+    }
+}
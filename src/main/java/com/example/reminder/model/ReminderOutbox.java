@@ -0,0 +1,84 @@
+package com.example.reminder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A rendered reminder mail waiting to be sent. Written in the same transaction that marks the
+ * reminder as sent, drained by ReminderOutboxRelay (at-least-once), deleted once delivered.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminder_outbox",
+       indexes = @Index(name = "idx_outbox_next_attempt", columnList = "nextAttemptAt"))
+public class ReminderOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // one mail per (event, occurrence, reminder), see keyFor() / digestKeyFor()
+    @Column(nullable = false, unique = true)
+    private String idempotencyKey;
+
+    // keyFor() of every reminder in a digest, unique so no reminder is in two pending mails.
+    // Removed by the database together with the mail (the relay deletes in bulk).
+    @ElementCollection
+    @CollectionTable(name = "reminder_outbox_items",
+            joinColumns = @JoinColumn(name = "outbox_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = "item_key"))
+    @Column(name = "item_key", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private List<String> itemKeys = new ArrayList<>();
+
+    // first event of a digest
+    @Column(nullable = false)
+    private Long eventId;
+
+    private LocalDate occurrenceDate;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @CreationTimestamp
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // retry state, see ReminderOutboxRelay
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    @Column(length = 1000)
+    private String lastError;
+
+    // lease taken by the node relaying this mail
+    private String claimOwner;
+    private LocalDateTime claimExpiry;
+
+    public static String keyFor(Long eventId, LocalDate occurrenceDate, Long reminderId) {
+        return eventId + ":" + occurrenceDate + ":" + reminderId;
+    }
+
+    // a digest is keyed by its first reminder, the others are covered by itemKeys
+    public static String digestKeyFor(List<String> itemKeys) {
+        return "digest:" + itemKeys.get(0);
+    }
+}
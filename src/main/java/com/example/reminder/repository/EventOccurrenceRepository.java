@@ -0,0 +1,25 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.EventOccurrence;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface EventOccurrenceRepository extends JpaRepository<EventOccurrence, Long> {
+
+    // date and event of every occurrence in the range, one range scan plus primary key lookups
+    @Query("SELECT o.occurrenceDate , e FROM EventOccurrence o JOIN Event e ON e.id = o.eventId " +
+            " WHERE o.userId = :userId AND o.occurrenceDate BETWEEN :start AND :end ORDER BY o.occurrenceDate")
+    List<Object[]> findInRange(@Param("userId") Long userId, @Param("start") LocalDate start,
+                               @Param("end") LocalDate end);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventOccurrence o WHERE o.userId = :userId AND o.occurrenceDate BETWEEN :from AND :to")
+    int deleteForUserBetween(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
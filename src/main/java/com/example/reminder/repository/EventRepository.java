@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,39 +58,21 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     Page<Event> findAllEventsAndAfterDate(@Param("date")LocalDate date ,
                                        Pageable pageable);
 
-    @Query("SELECT e FROM Event e WHERE e.reminderSent = false AND e.reminderTime <= :now ")
-    List<Event> findPendingReminders(@Param("now") LocalDateTime now);
-
-    @Query("SELECT e FROM Event e WHERE e.user=:user AND e.reminderSent = false AND " +
-                                    "e.reminderTime <= :threshold  AND e.reminderTime >= :now ")
-    List<Event> findAllUpcomingReminders(@Param("user") User user, @Param("now") LocalDateTime now,
-                                      @Param("threshold")LocalDateTime threshold);
-
-    @Query("SELECT e FROM Event e WHERE e.user=:user AND e.reminderSent = true AND " +
-            "e.reminderTime >= :threshold  AND e.reminderTime <= :now ")
-    List<Event> findAllSentReminders(@Param("user") User user, @Param("now") LocalDateTime now,
-                                         @Param("threshold")LocalDateTime threshold);
-
+    // summary flag shown to admins: set once every reminder of the event went out
     @Modifying(clearAutomatically = true , flushAutomatically = true)
-    @Query("UPDATE Event e SET reminderSent=true , reminderSentTime=now() WHERE e.id in :ids")
-    int markRemindersSentByIds(@Param("ids") List<Long> ids);
-
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.reminderSent = true")
-    Long countByReminderSentTrue();
+    @Transactional
+    @Query("UPDATE Event e SET reminderSent=true , reminderSentTime=:now WHERE e.id in :ids " +
+            " AND NOT EXISTS (SELECT r.id FROM Reminder r WHERE r.eventId = e.id AND r.sent = false)")
+    int markReminderDoneForEvents(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.reminderSent = false")
-    Long countByReminderSentFalse();
+    // events whose reminderTime was never copied into the reminders table, skipped occurrences (no date) are never reminded
+    @Query("SELECT e FROM Event e WHERE e.reminderTime IS NOT NULL AND e.eventDate IS NOT NULL " +
+            " AND NOT EXISTS (SELECT r.id FROM Reminder r WHERE r.eventId = e.id) ORDER BY e.id")
+    List<Event> findWithoutReminderRows(Pageable pageable);
 
     @Query("SELECT COUNT(e) FROM Event e WHERE e.createdAt >= :from")
     Long countEventsCreatedAfter(@Param("from") LocalDateTime from);
 
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.reminderSent=true AND e.reminderSentTime >= :from")
-    Long countReminderSentAfter(@Param("from") LocalDateTime from);
-
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.reminderSent=false AND e.reminderTime >= :from" +
-            " AND e.reminderTime <= :to")
-    Long countReminderSentBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
-
     @Query("SELECT e.eventDate as date , COUNT(e) as cnt FROM Event e WHERE " +
             " e.eventDate >= :from AND e.eventDate <= :to GROUP BY  e.eventDate ORDER BY  e.eventDate")
     List<Object[]> eventsPerDaySince(@Param("from") LocalDate from,@Param("to") LocalDate to);
@@ -118,6 +101,22 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             " AND e.id = :id  ")
     Event findRecurringMasterAffectingRangeByDate(@Param("user") User user, @Param("id") long id );
 
+    @Query("SELECT e from Event e where e.user = :user " +
+            " AND e.isException = false AND e.recurrenceType <> 'NONE' " +
+            " AND (e.recurrenceEndDate is null OR e.recurrenceEndDate >= :from ) ")
+    List<Event> findRecurringMastersFrom(@Param("user") User user, @Param("from") LocalDate from);
+
+    // single and moved events after the (eventDate, id) position, in that order
+    @Query("SELECT e from Event e where e.user = :user " +
+            " AND (e.isException = true OR e.recurrenceType = 'NONE') AND e.eventDate is not null " +
+            " AND (e.eventDate > :date OR (e.eventDate = :date AND e.id > :id)) " +
+            " ORDER BY e.eventDate, e.id")
+    List<Event> findStandaloneAfter(@Param("user") User user, @Param("date") LocalDate date,
+                                    @Param("id") long id, Pageable pageable);
+
+    @Query("SELECT MIN(e.eventDate) FROM Event e WHERE e.user = :user")
+    LocalDate findFirstEventDate(@Param("user") User user);
+
     @Query("SELECT e from Event e where e.user = :user " +
             " AND e.isException = true " +
             " AND e.eventDate between :start AND :end ")
@@ -141,6 +140,11 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     int deleteExceptionsForMasterAfter(@Param("masterId") Long masterId,
                                        @Param("originalDate") LocalDate originalDate);
 
+    // original dates of moved or skipped occurrences, these get no reminder from their series
+    @Query("select e.parentEventId , e.originalDate from Event e where e.isException = true " +
+            " and e.parentEventId in :parentIds and e.originalDate is not null")
+    List<Object[]> findExceptionDates(@Param("parentIds") Collection<Long> parentIds);
+
     @Query("select e from Event e where e.isException = true and e.parentEventId = :parentId and e.originalDate = :date")
     Event findExceptionByParentAndOriginalDate(Long parentId, LocalDate date);
 
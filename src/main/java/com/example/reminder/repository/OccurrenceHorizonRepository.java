@@ -0,0 +1,16 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.OccurrenceHorizon;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OccurrenceHorizonRepository extends JpaRepository<OccurrenceHorizon, Long> {
+
+    @Query("SELECT h FROM OccurrenceHorizon h WHERE h.materializedUntil < :horizon ORDER BY h.userId")
+    List<OccurrenceHorizon> findBehind(@Param("horizon") LocalDate horizon, Pageable pageable);
+}
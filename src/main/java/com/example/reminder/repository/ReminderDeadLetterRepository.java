@@ -0,0 +1,7 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.ReminderDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReminderDeadLetterRepository extends JpaRepository<ReminderDeadLetter, Long> {
+}
@@ -0,0 +1,21 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.ReminderOccurrence;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ReminderOccurrenceRepository extends JpaRepository<ReminderOccurrence, Long> {
+
+    @Query("SELECT COUNT(o) FROM ReminderOccurrence o WHERE o.sentTime >= :from")
+    Long countSentAfter(@Param("from") LocalDateTime from);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReminderOccurrence o WHERE o.masterEventId = :masterId")
+    int deleteByMaster(@Param("masterId") Long masterId);
+}
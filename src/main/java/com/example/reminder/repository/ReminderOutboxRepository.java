@@ -0,0 +1,43 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.ReminderOutbox;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReminderOutboxRepository extends JpaRepository<ReminderOutbox, Long> {
+
+    @Query("SELECT o.idempotencyKey FROM ReminderOutbox o WHERE o.idempotencyKey in :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+    // keyFor() keys already in a pending mail, on their own or as part of a digest
+    @Query(value = "SELECT idempotency_key FROM reminder_outbox WHERE idempotency_key IN (:keys) " +
+            " UNION SELECT item_key FROM reminder_outbox_items WHERE item_key IN (:keys)", nativeQuery = true)
+    List<String> findEnqueuedItemKeys(@Param("keys") Collection<String> keys);
+
+    // outbox id and item key of every reminder in the mails, the relay loads mails without their items
+    @Query(value = "SELECT outbox_id , item_key FROM reminder_outbox_items WHERE outbox_id IN (:ids)",
+            nativeQuery = true)
+    List<Object[]> findItemKeys(@Param("ids") Collection<Long> ids);
+
+    // claim the oldest unleased mails that are due for (another) attempt for one relaying node
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE reminder_outbox SET claim_owner = :owner , claim_expiry = :leaseUntil " +
+            " WHERE (claim_expiry IS NULL OR claim_expiry < :now) " +
+            " AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+            " ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claimBatch(@Param("owner") String owner, @Param("now") LocalDateTime now,
+                   @Param("leaseUntil") LocalDateTime leaseUntil, @Param("limit") int limit);
+
+    @Query("SELECT o FROM ReminderOutbox o WHERE o.claimOwner = :owner AND o.claimExpiry >= :now ORDER BY o.id")
+    List<ReminderOutbox> findClaimed(@Param("owner") String owner, @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+}
@@ -0,0 +1,121 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.dto.ReminderDispatchView;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReminderRepository extends JpaRepository<Reminder, Long> {
+
+    List<Reminder> findByEventIdOrderByOffsetMinutesDesc(Long eventId);
+
+    // claim the next keyset chunk of due reminders (ordered by fire_at, id) for one node,
+    // rows leased by another node are skipped
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE reminders SET claim_owner = :owner , claim_expiry = :leaseUntil " +
+            " WHERE sent = false AND fire_at <= :dueUntil " +
+            " AND (claim_expiry IS NULL OR claim_expiry < :now) " +
+            " AND (fire_at > :afterTime OR (fire_at = :afterTime AND id > :afterId)) " +
+            " ORDER BY fire_at , id LIMIT :limit", nativeQuery = true)
+    int claimPendingReminders(@Param("owner") String owner, @Param("now") LocalDateTime now,
+                              @Param("dueUntil") LocalDateTime dueUntil,
+                              @Param("leaseUntil") LocalDateTime leaseUntil,
+                              @Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+                              @Param("limit") int limit);
+
+    // dispatch projection: reminder, event fields and recipient email in one round trip
+    @Query("SELECT new com.example.reminder.dto.ReminderDispatchView(r.id , e.id , e.title , r.occurrenceDate , " +
+            " e.description , r.fireAt , u.id , u.email , e.recurrenceType , e.recurrenceInterval , " +
+            " e.recurrenceEndDate) FROM Reminder r JOIN Event e ON e.id = r.eventId JOIN e.user u " +
+            " WHERE r.claimOwner = :owner AND r.sent = false AND r.claimExpiry >= :now " +
+            " AND (r.fireAt > :afterTime OR (r.fireAt = :afterTime AND r.id > :afterId)) " +
+            " ORDER BY r.fireAt , r.id ")
+    List<ReminderDispatchView> findClaimedReminders(@Param("owner") String owner, @Param("now") LocalDateTime now,
+                                                    @Param("afterTime") LocalDateTime afterTime,
+                                                    @Param("afterId") Long afterId, Pageable pageable);
+
+    // the claimed rows this node still owns, locked until the acknowledging transaction ends,
+    // so another node cannot take them over between the ownership check and the acknowledgement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reminder r WHERE r.id in :ids AND r.claimOwner = :owner AND r.sent = false")
+    List<Reminder> lockClaimed(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Modifying(clearAutomatically = true , flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Reminder r SET r.sent = true , r.sentTime = :now , r.claimOwner = null , r.claimExpiry = null " +
+            " WHERE r.id in :ids AND r.claimOwner = :owner")
+    int markSentByIds(@Param("ids") List<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // shutdown: claims this node still holds become pending again instead of waiting for their lease
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reminder r SET r.claimOwner = null , r.claimExpiry = null " +
+            " WHERE r.claimOwner in :owners AND r.sent = false")
+    int releaseClaims(@Param("owners") Collection<String> owners);
+
+    @Modifying(clearAutomatically = true , flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Reminder r SET r.sent = true , r.sentTime = :now WHERE r.eventId = :eventId AND r.sent = false")
+    int markAllSentForEvent(@Param("eventId") Long eventId, @Param("now") LocalDateTime now);
+
+    // id and fireAt of every unsent reminder in the window, loaded into ReminderScheduler
+    @Query("SELECT r.id , r.fireAt FROM Reminder r WHERE r.sent = false AND r.fireAt >= :from AND r.fireAt <= :to")
+    List<Object[]> findReminderSchedule(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // size of the backlog ReminderCatchUpService works off after a restart
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = false AND r.fireAt <= :before")
+    long countOverdueReminders(@Param("before") LocalDateTime before);
+
+    @Query("SELECT r , e FROM Reminder r JOIN Event e ON e.id = r.eventId WHERE e.user = :user " +
+            " AND r.sent = false AND r.fireAt >= :from AND r.fireAt <= :to ORDER BY r.fireAt")
+    List<Object[]> findUpcomingForUser(@Param("user") User user, @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Query("SELECT r , e FROM Reminder r JOIN Event e ON e.id = r.eventId WHERE e.user = :user " +
+            " AND r.sentTime >= :from AND r.sentTime <= :to ORDER BY r.sentTime")
+    List<Object[]> findSentForUser(@Param("user") User user, @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = true")
+    Long countSent();
+
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = false")
+    Long countPending();
+
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = true AND r.sentTime >= :from")
+    Long countSentAfter(@Param("from") LocalDateTime from);
+
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = false AND r.fireAt >= :from AND r.fireAt <= :to")
+    Long countDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Reminder r WHERE r.eventId = :eventId")
+    int deleteByEvent(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Reminder r WHERE r.eventId IN (SELECT e.id FROM Event e WHERE e.parentEventId = :masterId " +
+            " AND e.isException = true)")
+    int deleteForExceptionsOfMaster(@Param("masterId") Long masterId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Reminder r WHERE r.eventId IN (SELECT e.id FROM Event e WHERE e.parentEventId = :masterId " +
+            " AND e.isException = true AND e.originalDate > :originalDate)")
+    int deleteForExceptionsOfMasterAfter(@Param("masterId") Long masterId,
+                                         @Param("originalDate") LocalDate originalDate);
+}
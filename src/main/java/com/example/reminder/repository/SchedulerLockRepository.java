@@ -0,0 +1,47 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.SchedulerLock;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/*
+ * Leases are compared and computed with the database clock only, so nodes whose clocks drift apart
+ * never both see a lease as expired and take the same lock.
+ */
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    // take the lock over when its lease ran out, or extend it when it is already ours
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_locks SET owner = :owner , " +
+            " locked_until = TIMESTAMPADD(MICROSECOND, :leaseMs * 1000, CURRENT_TIMESTAMP(6)) , " +
+            " heartbeat_at = CURRENT_TIMESTAMP(6) " +
+            " WHERE name = :name AND (locked_until <= CURRENT_TIMESTAMP(6) OR owner = :owner)", nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    // first node ever asking for this lock creates the row, concurrent inserts are ignored
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO scheduler_locks (name , owner , locked_until , heartbeat_at) " +
+            " VALUES (:name , :owner , TIMESTAMPADD(MICROSECOND, :leaseMs * 1000, CURRENT_TIMESTAMP(6)) , " +
+            " CURRENT_TIMESTAMP(6))", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_locks SET " +
+            " locked_until = TIMESTAMPADD(MICROSECOND, :leaseMs * 1000, CURRENT_TIMESTAMP(6)) , " +
+            " heartbeat_at = CURRENT_TIMESTAMP(6) " +
+            " WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    // lets another node take over right away instead of waiting for the lease to run out
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_locks SET locked_until = CURRENT_TIMESTAMP(6) " +
+            " WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
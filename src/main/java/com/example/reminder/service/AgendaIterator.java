@@ -0,0 +1,145 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Occurrences of a user in (date, event id) order after a given position, merged lazily from one
+ * iterator per series and the single/moved events (already in that order). Taking n items costs
+ * O(n log k) for k sources, however long the series already run.
+ */
+final class AgendaIterator implements Iterator<EventResponse> {
+
+    /** position of an occurrence in the agenda, also what a cursor encodes */
+    record Position(LocalDate date, long eventId) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position o) {
+            int byDate = date.compareTo(o.date);
+            return byDate != 0 ? byDate : Long.compare(eventId, o.eventId);
+        }
+    }
+
+    private interface Source {
+        Position head();
+
+        EventResponse take();
+    }
+
+    private final PriorityQueue<Source> heads = new PriorityQueue<>(Comparator.comparing(Source::head));
+    private Position last;
+
+    AgendaIterator(List<Event> masters, Map<Long, Set<LocalDate>> exceptionDates, List<Event> standalone,
+                   Position after, BiFunction<Event, LocalDate, EventResponse> occurrenceOf) {
+        for (Event master : masters) {
+            offer(new SeriesSource(master, exceptionDates.getOrDefault(master.getId(), Set.of()), after, occurrenceOf));
+        }
+        offer(new ListSource(standalone.iterator()));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public EventResponse next() {
+        Source source = heads.poll();
+        if (source == null) {
+            throw new NoSuchElementException();
+        }
+        last = source.head();
+        EventResponse item = source.take();
+        offer(source);
+        return item;
+    }
+
+    /** position of the item last returned by {@link #next()} */
+    Position lastPosition() {
+        return last;
+    }
+
+    private void offer(Source source) {
+        if (source.head() != null) {
+            heads.add(source);
+        }
+    }
+
+    private static final class ListSource implements Source {
+        private final Iterator<Event> events;
+        private Event current;
+
+        ListSource(Iterator<Event> events) {
+            this.events = events;
+            this.current = events.hasNext() ? events.next() : null;
+        }
+
+        @Override
+        public Position head() {
+            return current == null ? null : new Position(current.getEventDate(), current.getId());
+        }
+
+        @Override
+        public EventResponse take() {
+            EventResponse item = EventResponse.fromEntity(current);
+            current = events.hasNext() ? events.next() : null;
+            return item;
+        }
+    }
+
+    private static final class SeriesSource implements Source {
+        private final Event master;
+        private final Set<LocalDate> exceptionDates;
+        private final BiFunction<Event, LocalDate, EventResponse> occurrenceOf;
+        private final int interval;
+        private LocalDate next;
+
+        SeriesSource(Event master, Set<LocalDate> exceptionDates, Position after,
+                     BiFunction<Event, LocalDate, EventResponse> occurrenceOf) {
+            this.master = master;
+            this.exceptionDates = exceptionDates;
+            this.occurrenceOf = occurrenceOf;
+            this.interval = (master.getRecurrenceInterval() != null && master.getRecurrenceInterval() > 0)
+                    ? master.getRecurrenceInterval() : 1;
+
+            LocalDate first = RecurrenceMath.firstOnOrAfter(
+                    master.getEventDate(), master.getRecurrenceType(), interval, after.date());
+            // the occurrence at the position itself was on the previous page
+            if (first.equals(after.date()) && master.getId() <= after.eventId()) {
+                first = step(first);
+            }
+            this.next = visibleFrom(first);
+        }
+
+        @Override
+        public Position head() {
+            return next == null ? null : new Position(next, master.getId());
+        }
+
+        @Override
+        public EventResponse take() {
+            EventResponse item = occurrenceOf.apply(master, next);
+            next = visibleFrom(step(next));
+            return item;
+        }
+
+        // skips moved and skipped occurrences, null once the series ended
+        private LocalDate visibleFrom(LocalDate d) {
+            while (!ended(d) && exceptionDates.contains(d)) {
+                d = step(d);
+            }
+            return ended(d) ? null : d;
+        }
+
+        private boolean ended(LocalDate d) {
+            return master.getRecurrenceEndDate() != null && d.isAfter(master.getRecurrenceEndDate());
+        }
+
+        private LocalDate step(LocalDate d) {
+            return RecurrenceMath.addInterval(d, master.getRecurrenceType(), interval);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Expanded calendar occurrences per user and month, so the calendar view does not query and expand
+ * every series again on each view change. Bounded, the least recently used months are evicted.
+ *
+ * EventService invalidates the months a write touches once it is committed. A month computed while
+ * a write of the same user was running is not stored (version check), it could miss that write.
+ *
+ * Invalidation only reaches this node. Writes served by another replica are seen here once the
+ * month expires (ttl-seconds), which bounds how long a node can show a stale month.
+ */
+@Component
+public class CalendarCache {
+
+    private record Bucket(Long userId, YearMonth month) {}
+
+    private record Entry(List<EventResponse> occurrences, long expiresAt) {}
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final long ttlMillis;
+
+    private final Map<Bucket, Entry> buckets;
+    // bumped on every invalidation of a user
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public CalendarCache(@Value("${app.calendar.cache.enabled:true}") boolean enabled,
+                         @Value("${app.calendar.cache.max-buckets:5000}") int maxBuckets,
+                         @Value("${app.calendar.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxBuckets = Math.max(1, maxBuckets);
+        this.ttlMillis = Math.max(0, ttlSeconds) * 1000;
+        this.buckets = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Bucket, Entry> eldest) {
+                if (size() > CalendarCache.this.maxBuckets) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized long version(Long userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    /** the cached months among the given ones, missing months are left out */
+    public synchronized Map<YearMonth, List<EventResponse>> get(Long userId, List<YearMonth> months) {
+        Map<YearMonth, List<EventResponse>> found = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (YearMonth month : months) {
+            Bucket key = new Bucket(userId, month);
+            Entry entry = buckets.get(key);
+            if (entry != null && entry.expiresAt() <= now) {
+                // may miss a write served by another node
+                buckets.remove(key);
+                expirations++;
+                entry = null;
+            }
+            if (entry != null) {
+                found.put(month, entry.occurrences());
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        return found;
+    }
+
+    /** stores computed months unless the user's events changed since {@code version} was read */
+    public synchronized void put(Long userId, Map<YearMonth, List<EventResponse>> months, long version) {
+        if (version(userId) != version) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        months.forEach((month, occurrences) ->
+                buckets.put(new Bucket(userId, month), new Entry(List.copyOf(occurrences), expiresAt)));
+    }
+
+    /** every month the event is shown in: its date, or the whole span of a series */
+    public void invalidate(Long userId, Event e) {
+        invalidate(userId, e.getEventDate(), lastDateOf(e));
+    }
+
+    /** months from {@code from} to {@code to}, {@code to == null} means all later months too */
+    public void invalidate(Long userId, LocalDate from, LocalDate to) {
+        // skipped occurrences have no date and are not shown anywhere
+        if (!enabled || from == null) return;
+
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = to == null ? null : YearMonth.from(to);
+
+        evict(userId, first, last);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // once more after commit, a reader may have cached the old rows in between
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId, first, last);
+                }
+            });
+        }
+    }
+
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("buckets", buckets.size());
+        metrics.put("maxBuckets", maxBuckets);
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("evictions", evictions);
+        metrics.put("expirations", expirations);
+        metrics.put("ttlSeconds", ttlMillis / 1000);
+        return metrics;
+    }
+
+    // null for a series without end
+    static LocalDate lastDateOf(Event e) {
+        boolean recurring = e.getRecurrenceType() != null && e.getRecurrenceType() != RecurrenceType.NONE
+                && !e.isException();
+        if (!recurring) {
+            return e.getEventDate();
+        }
+        return e.getRecurrenceEndDate();
+    }
+
+    private synchronized void evict(Long userId, YearMonth first, YearMonth last) {
+        versions.merge(userId, 1L, Long::sum);
+        buckets.keySet().removeIf(b -> b.userId().equals(userId)
+                && !b.month().isBefore(first)
+                && (last == null || !b.month().isAfter(last)));
+    }
+}
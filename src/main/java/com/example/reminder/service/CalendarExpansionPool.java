@@ -0,0 +1,117 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Optional parallel expansion of recurring masters for large calendar ranges (year views, many series).
+ * The masters are split in halves on a dedicated ForkJoinPool, so expansion never competes with the
+ * common pool, and the halves are merged back in date order.
+ *
+ * Off by default. Below the thresholds the fork/merge overhead is larger than the expansion itself.
+ */
+@Component
+public class CalendarExpansionPool {
+
+    // masters expanded by one task without splitting further
+    private static final int LEAF_MASTERS = 8;
+
+    private final boolean enabled;
+    private final int minMasters;
+    private final int minRangeDays;
+    private final ForkJoinPool pool;
+
+    public CalendarExpansionPool(@Value("${app.calendar.parallel.enabled:false}") boolean enabled,
+                                 @Value("${app.calendar.parallel.parallelism:0}") int parallelism,
+                                 @Value("${app.calendar.parallel.min-masters:32}") int minMasters,
+                                 @Value("${app.calendar.parallel.min-range-days:366}") int minRangeDays) {
+        this.enabled = enabled;
+        this.minMasters = Math.max(2, minMasters);
+        this.minRangeDays = Math.max(1, minRangeDays);
+        this.pool = enabled
+                ? new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                        p -> {
+                            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                            t.setName("calendar-expand-" + t.getPoolIndex());
+                            return t;
+                        }, null, false)
+                : null;
+    }
+
+    /** whether expanding this many masters over this many days is worth forking */
+    public boolean worthParallel(int masters, long rangeDays) {
+        return enabled && masters > LEAF_MASTERS && (masters >= minMasters || rangeDays >= minRangeDays);
+    }
+
+    /** every master expanded by {@code expandOne} (date ordered per master), merged in date order */
+    public List<EventResponse> expand(List<Event> masters, Function<Event, List<EventResponse>> expandOne) {
+        return pool.invoke(new ExpandTask(masters, expandOne));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static final class ExpandTask extends RecursiveTask<List<EventResponse>> {
+        private final List<Event> masters;
+        private final Function<Event, List<EventResponse>> expandOne;
+
+        ExpandTask(List<Event> masters, Function<Event, List<EventResponse>> expandOne) {
+            this.masters = masters;
+            this.expandOne = expandOne;
+        }
+
+        @Override
+        protected List<EventResponse> compute() {
+            if (masters.size() <= 1) {
+                return masters.isEmpty() ? List.of() : expandOne.apply(masters.get(0));
+            }
+            if (masters.size() <= LEAF_MASTERS) {
+                List<EventResponse> merged = List.of();
+                for (Event master : masters) {
+                    merged = merge(merged, expandOne.apply(master));
+                }
+                return merged;
+            }
+
+            int mid = masters.size() / 2;
+            ExpandTask left = new ExpandTask(masters.subList(0, mid), expandOne);
+            left.fork();
+            List<EventResponse> right = new ExpandTask(masters.subList(mid, masters.size()), expandOne).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    /** two date ordered lists into one, {@code a} first on equal dates */
+    static List<EventResponse> merge(List<EventResponse> a, List<EventResponse> b) {
+        if (a.isEmpty()) return b;
+        if (b.isEmpty()) return a;
+
+        List<EventResponse> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (b.get(j).getEventDate().isBefore(a.get(i).getEventDate())) {
+                merged.add(b.get(j++));
+            } else {
+                merged.add(a.get(i++));
+            }
+        }
+        merged.addAll(a.subList(i, a.size()));
+        merged.addAll(b.subList(j, b.size()));
+        return merged;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.reminder.service;
+
+import com.example.reminder.exception.ResourceNotFoundException;
+import com.example.reminder.model.ReminderDeadLetter;
+import com.example.reminder.model.ReminderOutbox;
+import com.example.reminder.repository.ReminderDeadLetterRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private final ReminderDeadLetterRepository deadLetterRepo;
+    private final ReminderOutboxRepository outboxRepo;
+
+    public Page<ReminderDeadLetter> getDeadLetters(Integer page, Integer size) {
+        int p = (page == null || page < 0) ? 0 : page;
+        int s = (size == null || size <= 0 || size > 100) ? 10 : size;
+
+        return deadLetterRepo.findAll(PageRequest.of(p, s, Sort.by(Sort.Direction.DESC, "failedAt", "id")));
+    }
+
+    /** put a dead letter back into the outbox with a fresh attempt budget */
+    @Transactional
+    public void replay(Long id) {
+        ReminderDeadLetter dead = deadLetterRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Dead letter with id " + id + " not found."));
+
+        // the mail, or a reminder of its digest, may already be queued again (replayed twice), do not duplicate it
+        List<String> keys = new ArrayList<>(dead.getItemKeys());
+        keys.add(dead.getIdempotencyKey());
+        if (outboxRepo.findEnqueuedItemKeys(keys).isEmpty()) {
+            ReminderOutbox mail = new ReminderOutbox();
+            mail.setIdempotencyKey(dead.getIdempotencyKey());
+            mail.setItemKeys(new ArrayList<>(dead.getItemKeys()));
+            mail.setEventId(dead.getEventId());
+            mail.setOccurrenceDate(dead.getOccurrenceDate());
+            mail.setRecipient(dead.getRecipient());
+            mail.setSubject(dead.getSubject());
+            mail.setHtmlBody(dead.getHtmlBody());
+            outboxRepo.save(mail);
+        }
+
+        deadLetterRepo.delete(dead);
+        log.info("Dead letter {} for event {} replayed into outbox", id, dead.getEventId());
+    }
+}
@@ -1,22 +1,50 @@
 package com.example.reminder.service;
 
+import com.example.reminder.dto.OutgoingEmail;
+import com.example.reminder.dto.ReminderDispatchView;
 import com.example.reminder.model.Event;
+import com.example.reminder.service.MailRateLimiter.MailClass;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
 @Slf4j
 @Service
 public class EmailService {
     private final JavaMailSender mailSender;
 
-    public EmailService(JavaMailSender mailSender) {
+    // all SMTP work runs here, bounded concurrency + queue
+    private final MailExecutor mailExecutor;
+
+    // provider budget, transactional mail before reminder mail
+    private final MailRateLimiter rateLimiter;
+
+    // how many messages share one SMTP connection
+    private final int batchSize;
+
+    public EmailService(JavaMailSender mailSender, MailExecutor mailExecutor, MailRateLimiter rateLimiter,
+                        @Value("${app.mail.batch-size:50}") int batchSize) {
         this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        this.rateLimiter = rateLimiter;
+        this.batchSize = Math.max(1, batchSize);
     }
     /*
     @Async
@@ -33,8 +61,19 @@ public class EmailService {
         }
     }*/
 
-    @Async // each call executes in separated Thread
+    // each call executes on its own virtual thread of the mail executor,
+    // throws RejectedExecutionException when the mail queue stays full
     public void sendReminderHtml(String to , String subject , String htmlBody) {
+        mailExecutor.execute(() -> sendHtmlNow(to, subject, htmlBody), () -> rateLimiter.acquire(MailClass.REMINDER));
+    }
+
+    // verification / password reset mails, served before reminder mails by the rate limiter; the token is
+    // taken before the send permit, so reminder work waiting for tokens never holds the SMTP slots
+    public void sendTransactionalHtml(String to , String subject , String htmlBody) {
+        mailExecutor.execute(() -> sendHtmlNow(to, subject, htmlBody), () -> rateLimiter.acquire(MailClass.TRANSACTIONAL));
+    }
+
+    private void sendHtmlNow(String to , String subject , String htmlBody) {
         try {
             MimeMessage mimeMessage = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(mimeMessage,true,"UTF-8");
@@ -46,38 +85,133 @@ public class EmailService {
             mailSender.send(mimeMessage);
             log.info("HTML reminder email sent to {}", to);
 
-        } catch (MessagingException e) {
+        } catch (MessagingException | MailException e) {
+            // nobody waits for the result of a single send, so this log line is the only trace of the failure
             log.error("Failed to send HTML email to {}: {}", to, e.getMessage(), e);
         }
     }
 
-    public String buildReminderHtml(Event e) {
-        String desc = (e.getDescription() == null || e.getDescription().isBlank())
-                ? "—"
-                : e.getDescription();
+    /**
+     * Sends all mails over as few SMTP connections as possible: the list is cut into batches of
+     * batchSize, every batch goes through one transport via JavaMailSender.send(MimeMessage...),
+     * batches run in parallel on the mail executor. Blocks until every batch is done.
+     * Returns the mails that were accepted by the server.
+     */
+    public List<OutgoingEmail> sendHtmlBatch(List<OutgoingEmail> mails) {
+        Map<Future<List<OutgoingEmail>>, List<OutgoingEmail>> batches = new LinkedHashMap<>();
+        for (int from = 0; from < mails.size(); from += batchSize) {
+            List<OutgoingEmail> batch = mails.subList(from, Math.min(from + batchSize, mails.size()));
+            try {
+                // smooth the batch to the provider budget before it takes a connection slot
+                batches.put(mailExecutor.submit(() -> sendOverOneConnection(batch), () -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        rateLimiter.acquire(MailClass.REMINDER);
+                    }
+                }), batch);
+            } catch (RejectedExecutionException e) {
+                batch.forEach(mail -> mail.setError(e.getMessage()));
+                log.error("SMTP batch rejected: {}", e.getMessage());
+            }
+        }
+
+        List<OutgoingEmail> sent = new ArrayList<>(mails.size());
+        for (Map.Entry<Future<List<OutgoingEmail>>, List<OutgoingEmail>> batch : batches.entrySet()) {
+            try {
+                sent.addAll(batch.getKey().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for SMTP batch");
+                break;
+            } catch (ExecutionException e) {
+                // e.g. interrupted while waiting for rate tokens, nothing of the batch was sent
+                batch.getValue().forEach(mail -> mail.setError(String.valueOf(e.getCause().getMessage())));
+                log.error("SMTP batch failed: {}", e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return sent;
+    }
+
+    private List<OutgoingEmail> sendOverOneConnection(List<OutgoingEmail> batch) {
+        Map<MimeMessage, OutgoingEmail> messages = new LinkedHashMap<>();
+        for (OutgoingEmail mail : batch) {
+            try {
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+                helper.setTo(mail.getTo());
+                helper.setSubject(mail.getSubject());
+                helper.setText(mail.getHtmlBody(), true);
+                messages.put(mimeMessage, mail);
+            } catch (MessagingException e) {
+                mail.setError(e.getMessage());
+                log.error("Failed to build HTML email to {}: {}", mail.getTo(), e.getMessage(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return List.of();
+        }
 
-        return """
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // with a cause the connection failed and every message is reported, otherwise the sender
+            // kept going after each failed message, only drop the ones it reports
+            boolean connectionFailed = e.getCause() != null;
+            e.getFailedMessages().forEach((msg, ex) -> {
+                OutgoingEmail failed = messages.remove(msg);
+                if (failed != null) {
+                    failed.setError(ex.getMessage());
+                    failed.setTransportFailure(connectionFailed);
+                    log.error("Failed to send HTML email to {}: {}", failed.getTo(), ex.getMessage());
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                failTransport(messages.values(), e);
+                return List.of();
+            }
+        } catch (MailException e) {
+            failTransport(messages.values(), e);
+            return List.of();
+        }
+
+        log.info("HTML email batch of {} sent over one connection", messages.size());
+        return new ArrayList<>(messages.values());
+    }
+
+    // nothing of the batch reached the server (connect, authentication, closed connection)
+    private static void failTransport(Collection<OutgoingEmail> mails, MailException e) {
+        mails.forEach(mail -> {
+            mail.setError(e.getMessage());
+            mail.setTransportFailure(true);
+        });
+        log.error("Failed to send SMTP batch: {}", e.getMessage(), e);
+    }
+
+    /*
+     * Templates are compiled once into literal segments and slots (see MailTemplate) instead of
+     * re-parsing the text block with String.formatted on every mail. {{slot}} values are HTML-escaped.
+     */
+    private static final MailTemplate REMINDER_TEMPLATE = MailTemplate.compile("""
         <div style="font-family: Arial, sans-serif; background:#f4f4f5; padding:20px;">
           <div style="max-width:520px; margin:0 auto; background:#ffffff; border-radius:12px; overflow:hidden; border:1px solid #e5e7eb;">
             <div style="background:#2563eb; color:#fff; padding:16px 20px; font-size:18px; font-weight:600;">
-              🔔 Reminder: %s
+              🔔 Reminder: {{title}}
             </div>
             <div style="padding:20px;">
               <p style="margin:0 0 12px 0; color:#374151;">Hi,</p>
               <p style="margin:0 0 16px 0; color:#374151;">This is a friendly reminder for your event.</p>
 
-              <table style="width:100%%; border-collapse:collapse; margin-top:10px;">
+              <table style="width:100%; border-collapse:collapse; margin-top:10px;">
                 <tr>
                   <td style="padding:8px 0; color:#6b7280; width:110px;">Title:</td>
-                  <td style="padding:8px 0; color:#111827; font-weight:500;">%s</td>
+                  <td style="padding:8px 0; color:#111827; font-weight:500;">{{title}}</td>
                 </tr>
                 <tr>
                   <td style="padding:8px 0; color:#6b7280;">Event date:</td>
-                  <td style="padding:8px 0; color:#111827;">%s</td>
+                  <td style="padding:8px 0; color:#111827;">{{eventDate}}</td>
                 </tr>
                 <tr>
                   <td style="padding:8px 0; color:#6b7280; vertical-align:top;">Description:</td>
-                  <td style="padding:8px 0; color:#111827;">%s</td>
+                  <td style="padding:8px 0; color:#111827;">{{description}}</td>
                 </tr>
               </table>
 
@@ -87,18 +221,44 @@ public class EmailService {
             </div>
           </div>
         </div>
-        """.formatted(
-                e.getTitle(),
-                e.getTitle(),
-                e.getEventDate(),
-                desc
-        );
-    }
+        """, "title", "eventDate", "description");
 
-    public String changeEmailHtml() {
+    private static final MailTemplate DIGEST_ROW_TEMPLATE = MailTemplate.compile("""
+                <tr>
+                  <td style="padding:8px 0; color:#111827; font-weight:500; border-top:1px solid #e5e7eb;">{{title}}</td>
+                  <td style="padding:8px 0; color:#111827; border-top:1px solid #e5e7eb;">{{eventDate}}</td>
+                  <td style="padding:8px 0; color:#6b7280; border-top:1px solid #e5e7eb;">{{description}}</td>
+                </tr>
+            """, "title", "eventDate", "description");
+
+    private static final MailTemplate DIGEST_TEMPLATE = MailTemplate.compile("""
+        <div style="font-family: Arial, sans-serif; background:#f4f4f5; padding:20px;">
+          <div style="max-width:520px; margin:0 auto; background:#ffffff; border-radius:12px; overflow:hidden; border:1px solid #e5e7eb;">
+            <div style="background:#2563eb; color:#fff; padding:16px 20px; font-size:18px; font-weight:600;">
+              🔔 Reminder: {{count}} upcoming events
+            </div>
+            <div style="padding:20px;">
+              <p style="margin:0 0 12px 0; color:#374151;">Hi,</p>
+              <p style="margin:0 0 16px 0; color:#374151;">This is a friendly reminder for your upcoming events.</p>
 
+              <table style="width:100%; border-collapse:collapse; margin-top:10px;">
+                <tr>
+                  <td style="padding:8px 0; color:#6b7280;">Title</td>
+                  <td style="padding:8px 0; color:#6b7280;">Event date</td>
+                  <td style="padding:8px 0; color:#6b7280;">Description</td>
+                </tr>
+                {{{rows}}}
+              </table>
 
-        return """
+              <p style="margin-top:20px; font-size:12px; color:#9ca3af;">
+                You received this email because you created reminders in ReminderApp.
+              </p>
+            </div>
+          </div>
+        </div>
+        """, "count", "rows");
+
+    private static final String CHANGE_EMAIL_HTML = """
         <div style="font-family: Arial, sans-serif; background:#f4f4f5; padding:20px;">
           <div style="max-width:520px; margin:0 auto; background:#ffffff; border-radius:12px; overflow:hidden; border:1px solid #e5e7eb;">
 
@@ -107,7 +267,7 @@ public class EmailService {
               <p style="margin:0 0 16px 0; color:#374151;">This is a friendly reminder,
               because you have changed your Email(Username).</p>
 
-              <table style="text-align:center; width:100%%; border-collapse:collapse; margin-top:10px;">
+              <table style="text-align:center; width:100%; border-collapse:collapse; margin-top:10px;">
                 <tr>
                   <td style="text-align:center; padding:8px 0; color:#6b7280; width:450px;">
                     <a href="http://localhost:4200/login" target="_blank"
@@ -136,22 +296,18 @@ public class EmailService {
           </div>
         </div>
         """;
-    }
 
-    public String buildVerificationEmailHtml(String link, String newEmail) {
-        return """
+    private static final MailTemplate VERIFICATION_TEMPLATE = MailTemplate.compile("""
         <h2>Confirm your new email</h2>
         <p>
         This link is valid for 30 minutes.
-        Please click the link below to verify: <b>%s</b></p>
-        <a href="%s" style="padding:10px 18px; background:#2563eb; color:white; text-decoration:none; border-radius:6px;">
+        Please click the link below to verify: <b>{{newEmail}}</b></p>
+        <a href="{{link}}" style="padding:10px 18px; background:#2563eb; color:white; text-decoration:none; border-radius:6px;">
             Verify Email
         </a>
-    """.formatted(newEmail, link);
-    }
+    """, "newEmail", "link");
 
-    public String buildResetPasswordHtml(String link) {
-        return """
+    private static final MailTemplate RESET_PASSWORD_TEMPLATE = MailTemplate.compile("""
         <div style="font-family: Arial, sans-serif; background:#f4f4f5; padding:20px;">
           <div style="max-width:520px; margin:0 auto; background:#ffffff; border-radius:12px; overflow:hidden; border:1px solid #e5e7eb;">
 
@@ -164,7 +320,7 @@ public class EmailService {
               </p>
 
               <div style="text-align:center; margin:24px 0;">
-                <a href="%s" target="_blank"
+                <a href="{{link}}" target="_blank"
                    style="
                      display:inline-block;
                      background:#3b82f6;
@@ -186,7 +342,42 @@ public class EmailService {
             </div>
           </div>
         </div>
-        """.formatted(link);
+        """, "link");
+
+    public String buildReminderHtml(Event e) {
+        return buildReminderHtml(e.getTitle(), e.getEventDate(), e.getDescription());
+    }
+
+    public String buildReminderHtml(String title, LocalDate eventDate, String description) {
+        String desc = (description == null || description.isBlank())
+                ? "—"
+                : description;
+
+        return REMINDER_TEMPLATE.render(title, eventDate, desc);
+    }
+
+    public String buildReminderDigestHtml(List<ReminderDispatchView> reminders) {
+        StringBuilder rows = new StringBuilder(512 * reminders.size());
+        for (ReminderDispatchView e : reminders) {
+            String desc = (e.getDescription() == null || e.getDescription().isBlank())
+                    ? "—"
+                    : e.getDescription();
+            DIGEST_ROW_TEMPLATE.renderInto(rows, e.getTitle(), e.getEventDate(), desc);
+        }
+
+        return DIGEST_TEMPLATE.render(reminders.size(), rows);
+    }
+
+    public String changeEmailHtml() {
+        return CHANGE_EMAIL_HTML;
+    }
+
+    public String buildVerificationEmailHtml(String link, String newEmail) {
+        return VERIFICATION_TEMPLATE.render(newEmail, link);
+    }
+
+    public String buildResetPasswordHtml(String link) {
+        return RESET_PASSWORD_TEMPLATE.render(link);
     }
 
 }
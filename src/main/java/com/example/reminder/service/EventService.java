@@ -1,29 +1,47 @@
 package com.example.reminder.service;
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.AgendaPageResponse;
 import com.example.reminder.dto.EventRequest;
 import com.example.reminder.dto.EventResponse;
 import com.example.reminder.dto.MoveOccurrenceRequest;
+import com.example.reminder.dto.NextOccurrencesResponse;
+import com.example.reminder.dto.ReminderDispatchView;
+import com.example.reminder.dto.ReminderOffsetRequest;
 import com.example.reminder.exception.BadRequestException;
 import com.example.reminder.exception.ResourceNotFoundException;
 import com.example.reminder.model.Event;
 import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.model.ReminderOccurrence;
+import com.example.reminder.model.ReminderOutbox;
 import com.example.reminder.model.User;
 import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderOccurrenceRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import com.example.reminder.repository.ReminderRepository;
+import com.example.reminder.repository.UserRepository;
 import com.example.reminder.security.AuthContext;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.lang.Math.abs;
@@ -33,17 +51,77 @@ import static java.time.temporal.ChronoUnit.DAYS;
 @Service
 public class EventService {
     private final EventRepository repo;
+    private final ReminderRepository reminderRepo;
+    private final UserRepository userRepo;
     private final EmailService emailService;
+    private final NodeIdentity nodeIdentity;
+    private final ReminderScheduler reminderScheduler;
+    private final ReminderOutboxRepository outboxRepo;
+    private final ReminderOccurrenceRepository occurrenceRepo;
+    private final ReminderOutboxRelay outboxRelay;
+    private final TransactionTemplate transactionTemplate;
+    private final ReminderCatchUpService catchUp;
+    private final CalendarCache calendarCache;
+    private final OccurrenceIndexService occurrenceIndex;
+    private final CalendarExpansionPool expansionPool;
+
+    // cleared on shutdown, a dispatch run stops claiming after its current chunk
+    private volatile boolean dispatching = true;
+
+    @Value("${app.reminder.claim-batch-size:100}")
+    private int claimBatchSize;
+
+    @Value("${app.reminder.claim-lease-seconds:300}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.reminder.digest.enabled:false}")
+    private boolean digestEnabled;
+
+    // opt-in: reminders due within this many minutes are sent early with the digest of the current run.
+    // 0 only coalesces the reminders of a recipient that are due at the same time.
+    @Value("${app.reminder.digest.window-minutes:0}")
+    private long digestWindowMinutes;
+    // Allowed sort fields (white list)
+    private static final Set<String> ALLOWED_SORTS = Set.of("id", "eventDate", "title", "reminderTime");
 
+    // lower bound of the (reminderTime, id) keyset used to walk pending reminders
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
 
+    // days of calendar occurrences streamed at a time
+    private static final int STREAM_WINDOW_DAYS = 31;
 
-    // Allowed sort fields (white list)
-    private static final Set<String> ALLOWED_SORTS = Set.of("id", "eventDate", "title", "reminderTime");
+    // longest range one calendar stream may expand, about ten years
+    private static final int MAX_STREAM_DAYS = 3660;
+
+    private static final int MAX_AGENDA_LIMIT = 200;
+
+    private static final int MAX_NEXT_OCCURRENCES = 100;
+
+    private static final int[] NO_DAYS = new int[0];
 
 
-    public EventService(EventRepository repository, EmailService emailService) {
+    public EventService(EventRepository repository, ReminderRepository reminderRepo,
+                        UserRepository userRepo, EmailService emailService,
+                        NodeIdentity nodeIdentity, ReminderScheduler reminderScheduler,
+                        ReminderOutboxRepository outboxRepo, ReminderOccurrenceRepository occurrenceRepo,
+                        ReminderOutboxRelay outboxRelay,
+                        TransactionTemplate transactionTemplate, ReminderCatchUpService catchUp,
+                        CalendarCache calendarCache, OccurrenceIndexService occurrenceIndex,
+                        CalendarExpansionPool expansionPool) {
         this.repo = repository;
+        this.reminderRepo = reminderRepo;
+        this.userRepo = userRepo;
         this.emailService = emailService;
+        this.nodeIdentity = nodeIdentity;
+        this.reminderScheduler = reminderScheduler;
+        this.outboxRepo = outboxRepo;
+        this.occurrenceRepo = occurrenceRepo;
+        this.outboxRelay = outboxRelay;
+        this.transactionTemplate = transactionTemplate;
+        this.catchUp = catchUp;
+        this.calendarCache = calendarCache;
+        this.occurrenceIndex = occurrenceIndex;
+        this.expansionPool = expansionPool;
     }
 
 
@@ -172,6 +250,7 @@ public class EventService {
     }
 
 
+    @Transactional
     public Event createEvent(User user,EventRequest eventRequest) {
 
         if (eventRequest == null) {
@@ -188,14 +267,26 @@ public class EventService {
         createdEvent.setRecurrenceEndDate(eventRequest.getRecurrenceEndDate());
         createdEvent.setUser(user);
 
-        return repo.save(createdEvent);
+        List<Integer> offsets = reminderOffsets(eventRequest);
+        if (createdEvent.getReminderTime() == null && !offsets.isEmpty()) {
+            createdEvent.setReminderTime(Reminder.fireTimeFor(createdEvent.getEventDate(), offsets.get(0)));
+        }
+
+        Event saved = repo.save(createdEvent);
+        replaceReminders(saved, offsets);
+        calendarChanged(user, saved);
+        return saved;
     }
 
+    @Transactional
     public Event updateEvent(User user,Long id , EventRequest updatedEvent) {
         Event event = repo.findById(id).orElse(null);
 
         if (event == null || !event.getUser().equals(user)) return null;
 
+        LocalDate shownFrom = event.getEventDate();
+        LocalDate shownTo = CalendarCache.lastDateOf(event);
+
         event.setTitle(updatedEvent.getTitle());
         event.setDescription(updatedEvent.getDescription());
         event.setEventDate(updatedEvent.getEventDate());
@@ -206,111 +297,741 @@ public class EventService {
         event.setReminderSent(false);
         event.setReminderSentTime(null);
 
-        return repo.save(event);
+        List<Integer> offsets = reminderOffsets(updatedEvent);
+        if (event.getReminderTime() == null && !offsets.isEmpty()) {
+            event.setReminderTime(Reminder.fireTimeFor(event.getEventDate(), offsets.get(0)));
+        }
+
+        Event saved = repo.save(event);
+        replaceReminders(saved, offsets);
+        calendarChanged(user, shownFrom, shownTo);
+        calendarChanged(user, saved);
+        return saved;
     }
 
+    @Transactional
     public void deleteEvent(User user,Long id) {
         Event event = repo.findById(id).orElse(null);
 
         if (event == null || !event.getUser().equals(user)) {
             throw new SecurityException("Not allowed to delete this event");
         }
+        cancelAfterCommit(reminderRepo.findByEventIdOrderByOffsetMinutesDesc(id));
+        reminderRepo.deleteByEvent(id);
+        occurrenceRepo.deleteByMaster(id);
         repo.delete(event);
+        calendarChanged(user, event);
+    }
+
+    public List<Reminder> getReminders(User user, Long eventId) {
+        getEventById(user, eventId);
+        return reminderRepo.findByEventIdOrderByOffsetMinutesDesc(eventId);
     }
 
-    @Scheduled(fixedDelay = 60000)
     @Transactional
+    public Reminder addReminder(User user, Long eventId, ReminderOffsetRequest request) {
+        Event event = getEventById(user, eventId);
+
+        Reminder reminder = new Reminder(eventId, request.getOffsetMinutes());
+        positionReminders(event, List.of(reminder));
+        validateReminderNotPast(reminder);
+
+        Reminder saved = reminderRepo.save(reminder);
+        scheduleAfterCommit(List.of(saved));
+        reopenReminders(event);
+        remindersChanged(user, event);
+        return saved;
+    }
+
+    @Transactional
+    public Reminder updateReminder(User user, Long eventId, Long reminderId, ReminderOffsetRequest request) {
+        Event event = getEventById(user, eventId);
+        Reminder reminder = findReminderOfEvent(eventId, reminderId);
+
+        reminder.setOffsetMinutes(request.getOffsetMinutes());
+        reminder.setSent(false);
+        reminder.setSentTime(null);
+        positionReminders(event, List.of(reminder));
+        validateReminderNotPast(reminder);
+
+        Reminder saved = reminderRepo.save(reminder);
+        scheduleAfterCommit(List.of(saved));
+        reopenReminders(event);
+        remindersChanged(user, event);
+        return saved;
+    }
+
+    @Transactional
+    public void deleteReminder(User user, Long eventId, Long reminderId) {
+        Event event = getEventById(user, eventId);
+        Reminder reminder = findReminderOfEvent(eventId, reminderId);
+
+        reminderRepo.delete(reminder);
+        cancelAfterCommit(List.of(reminder));
+        remindersChanged(user, event);
+    }
+
+    // the event has something to remind again
+    private void reopenReminders(Event event) {
+        if (event.isReminderSent()) {
+            event.setReminderSent(false);
+            event.setReminderSentTime(null);
+            repo.save(event);
+        }
+    }
+
+    // the reminderTime shown for the event (and its occurrences) is the one of its earliest reminder
+    private void remindersChanged(User user, Event event) {
+        List<Reminder> reminders = reminderRepo.findByEventIdOrderByOffsetMinutesDesc(event.getId());
+        LocalDateTime reminderTime = reminders.isEmpty()
+                ? null
+                : Reminder.fireTimeFor(event.getEventDate(), reminders.get(0).getOffsetMinutes());
+        if (Objects.equals(reminderTime, event.getReminderTime())) {
+            return;
+        }
+        event.setReminderTime(reminderTime);
+        repo.save(event);
+        calendarChanged(user, event);
+    }
+
+    private Reminder findReminderOfEvent(Long eventId, Long reminderId) {
+        return reminderRepo.findById(reminderId)
+                .filter(r -> r.getEventId().equals(eventId))
+                .orElseThrow(() -> new ResourceNotFoundException("Reminder with ID " + reminderId + " not found."));
+    }
+
+    // the scheduler heap only learns about committed rows, a rolled back write leaves it untouched
+    private void scheduleAfterCommit(List<Reminder> reminders) {
+        afterCommit(() -> reminders.forEach(reminderScheduler::schedule));
+    }
+
+    private void cancelAfterCommit(List<Reminder> reminders) {
+        afterCommit(() -> reminders.forEach(r -> reminderScheduler.cancel(r.getId())));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // explicit offsets win, otherwise the single reminderTime of older clients becomes one offset
+    private static List<Integer> reminderOffsets(EventRequest request) {
+        if (request.getReminders() != null) {
+            return request.getReminders().stream()
+                    .map(ReminderOffsetRequest::getOffsetMinutes)
+                    .distinct()
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        }
+        if (request.getReminderTime() != null && request.getEventDate() != null) {
+            return List.of(minutesBefore(request.getReminderTime(), request.getEventDate()));
+        }
+        return List.of();
+    }
+
+    static int minutesBefore(LocalDateTime reminderTime, LocalDate eventDate) {
+        return (int) ChronoUnit.MINUTES.between(reminderTime, eventDate.atStartOfDay());
+    }
+
+    private void replaceReminders(Event event, List<Integer> offsets) {
+        List<Reminder> old = reminderRepo.findByEventIdOrderByOffsetMinutesDesc(event.getId());
+        cancelAfterCommit(old);
+        reminderRepo.deleteAllInBatch(old);
+
+        List<Reminder> reminders = offsets.stream().map(o -> new Reminder(event.getId(), o)).toList();
+        positionReminders(event, reminders);
+        scheduleAfterCommit(reminderRepo.saveAll(reminders));
+    }
+
+    // after an event or series moved, its reminders follow
+    private void syncReminders(Event event) {
+        List<Reminder> reminders = reminderRepo.findByEventIdOrderByOffsetMinutesDesc(event.getId());
+        if (reminders.isEmpty()) {
+            return;
+        }
+        positionReminders(event, reminders);
+        scheduleAfterCommit(reminderRepo.saveAll(reminders));
+    }
+
+    // new event (moved occurrence, split series) gets the same reminder offsets as the one it came from
+    private void copyReminders(Event from, Event to) {
+        List<Integer> offsets = reminderRepo.findByEventIdOrderByOffsetMinutesDesc(from.getId()).stream()
+                .map(Reminder::getOffsetMinutes)
+                .toList();
+        replaceReminders(to, offsets);
+    }
+
+    /*
+     * Points every reminder at the occurrence it has to fire for next: the event date for a single event,
+     * for a series the first occurrence (moved/skipped ones excluded) whose reminder is not in the past.
+     */
+    void positionReminders(Event event, List<Reminder> reminders) {
+        boolean recurring = event.getRecurrenceType() != null && event.getRecurrenceType() != RecurrenceType.NONE;
+        Set<LocalDate> exceptionDates = recurring && event.getId() != null
+                ? exceptionDatesOf(List.of(event.getId())).getOrDefault(event.getId(), Set.of())
+                : Set.of();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Reminder r : reminders) {
+            r.setClaimOwner(null);
+            r.setClaimExpiry(null);
+
+            LocalDate occurrence = event.getEventDate() == null ? null
+                    : recurring ? firstOccurrenceToRemind(event, r.getOffsetMinutes(), now, exceptionDates)
+                    : event.getEventDate();
+
+            if (occurrence == null) {
+                r.setSent(true);
+                continue;
+            }
+            r.setOccurrenceDate(occurrence);
+            r.setFireAt(Reminder.fireTimeFor(occurrence, r.getOffsetMinutes()));
+            if (recurring) {
+                r.setSent(false);
+            }
+        }
+    }
+
+    private LocalDate firstOccurrenceToRemind(Event master, int offsetMinutes, LocalDateTime now,
+                                              Set<LocalDate> exceptionDates) {
+        int interval = (master.getRecurrenceInterval() != null && master.getRecurrenceInterval() > 0)
+                ? master.getRecurrenceInterval() : 1;
+
+        // occurrences before today certainly have their reminder in the past
+        LocalDate d = RecurrenceMath.firstOnOrAfter(
+                master.getEventDate(), master.getRecurrenceType(), interval, now.toLocalDate());
+        if (master.getRecurrenceEndDate() != null && d.isAfter(master.getRecurrenceEndDate())) {
+            return null;
+        }
+        while (Reminder.fireTimeFor(d, offsetMinutes).isBefore(now) || exceptionDates.contains(d)) {
+            d = addInterval(d, master.getRecurrenceType(), interval);
+            if (master.getRecurrenceEndDate() != null && d.isAfter(master.getRecurrenceEndDate())) {
+                return null;
+            }
+        }
+        if (master.getRecurrenceEndDate() != null && d.isAfter(master.getRecurrenceEndDate())) {
+            return null;
+        }
+        return d;
+    }
+
+    // same as exceptionDatesOf, as sorted epoch days for RecurrenceMath.occurrenceDays
+    private Map<Long, int[]> exceptionDaysOf(Collection<Long> masterIds) {
+        Map<Long, List<LocalDate>> dates = new HashMap<>();
+        for (Object[] row : repo.findExceptionDates(masterIds)) {
+            if (row[1] != null) {
+                dates.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((LocalDate) row[1]);
+            }
+        }
+        Map<Long, int[]> days = new HashMap<>();
+        dates.forEach((masterId, list) -> days.put(masterId, RecurrenceMath.sortedEpochDays(list)));
+        return days;
+    }
+
+    private Map<Long, Set<LocalDate>> exceptionDatesOf(Collection<Long> masterIds) {
+        Map<Long, Set<LocalDate>> exceptionDates = new HashMap<>();
+        for (Object[] row : repo.findExceptionDates(masterIds)) {
+            exceptionDates.computeIfAbsent((Long) row[0], k -> new HashSet<>()).add((LocalDate) row[1]);
+        }
+        return exceptionDates;
+    }
+
+    /** shutdown: the dispatch run in progress stops after its current chunk */
+    public void stopDispatching() {
+        dispatching = false;
+    }
+
+    /*
+     * Triggered by ReminderScheduler when a reminder is due and by its reconciliation sweep.
+     * Instead of reading all pending rows, a node claims a bounded batch (lease owner + expiry)
+     * and only sends/acknowledges what it owns, so replicas split the work. Reminders of a node
+     * that dies keep their lease until it expires and are then picked up by another node.
+     *
+     * The backlog is walked in keyset chunks of the reminders table ordered by (fireAt, id): each chunk is claimed,
+     * read, sent and acknowledged before the next one is touched, so memory stays flat no matter
+     * how many reminders are overdue.
+     */
     public void checkReminders() {
 
-        LocalDateTime now = LocalDateTime.now().withNano(0);
-        /*System.out.println("------------------------------------------------");
-        System.out.println("checkReminders() running at: " + now);
-        System.out.println("Local time: " + LocalDateTime.now());*/
-        List<Event> dueEvents = repo.findPendingReminders(now);
-        List<Long> okIds = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        String owner = nodeIdentity.getId();
+        Pageable chunk = PageRequest.of(0, claimBatchSize);
 
-        for(Event e : dueEvents) {
-            //System.out.println("Scheduler running at: " + now);
-            //System.out.println("Its time for event "+e.getTitle()+"("+e.getReminderTime()+")");
-            try {
-                String html = emailService.buildReminderHtml(e);
-                emailService.sendReminderHtml(
-                        e.getUser().getEmail(),
-                        "Reminder: "+e.getTitle() ,
-                        html
-                );
-                okIds.add(e.getId());
+        // in digest mode reminders due within the window (if one is configured) are pulled forward and
+        // coalesced per recipient
+        LocalDateTime dueUntil = digestEnabled ? now.plusMinutes(digestWindowMinutes) : now;
+
+        // the backlog from before startup is left to ReminderCatchUpService while it runs
+        LocalDateTime afterTime = catchUp.isActive() ? catchUp.getCutoff() : KEYSET_START;
+        Long afterId = 0L;
+
+        while (dispatching) {
+            reminderRepo.claimPendingReminders(owner, now, dueUntil, now.plusSeconds(claimLeaseSeconds),
+                    afterTime, afterId, claimBatchSize);
+
+            List<ReminderDispatchView> dueEvents = reminderRepo.findClaimedReminders(owner, now, afterTime, afterId,
+                    chunk);
+            if (dueEvents.isEmpty()) {
+                break;
+            }
+
+            dispatchClaimedReminders(owner, now, dueEvents);
+            outboxRelay.trigger();
+
+            ReminderDispatchView last = dueEvents.get(dueEvents.size() - 1);
+            afterTime = last.getReminderTime();
+            afterId = last.getReminderId();
+        }
+
+    }
 
-                //handle Recurrence
-                createNextOccurenceIfRecurring(e);
+    private void dispatchClaimedReminders(String owner, LocalDateTime now, List<ReminderDispatchView> dueEvents) {
+        enqueueReminderMails(owner, now, groupForMails(dueEvents), List.of());
+    }
+
+    /*
+     * One chunk of the startup backlog, classified by ReminderCatchUpService: late reminders get their
+     * own mail, stale ones one mail per recipient, reminders of events that are over only get acknowledged.
+     */
+    public void dispatchCatchUp(String owner, LocalDateTime now, List<ReminderDispatchView> late,
+                                List<ReminderDispatchView> stale, List<ReminderDispatchView> over) {
+        List<List<ReminderDispatchView>> groups = new ArrayList<>();
+        late.forEach(e -> groups.add(List.of(e)));
+        groups.addAll(byRecipient(stale));
+        enqueueReminderMails(owner, now, groups, over);
+    }
 
+    /*
+     * Renders the mails outside of any transaction, then in one short transaction marks the reminders sent,
+     * moves series reminders on to their next occurrence and writes the mails to the outbox.
+     * Sending is left to ReminderOutboxRelay, so SMTP latency never holds a database connection.
+     *
+     * Only reminders this node still owns are acknowledged, and only their mails are written: the rows are
+     * locked first, so a reminder whose lease was lost to another node is never enqueued a second time,
+     * even after the other node's mail was delivered and deleted from the outbox.
+     */
+    private void enqueueReminderMails(String owner, LocalDateTime now, List<List<ReminderDispatchView>> groups,
+                                      List<ReminderDispatchView> withoutMail) {
+
+        Map<String, List<ReminderDispatchView>> byKey = new LinkedHashMap<>();
+        List<ReminderOutbox> outbox = new ArrayList<>();
+
+        for (List<ReminderDispatchView> group : groups) {
+            try {
+                ReminderOutbox mail = mailFor(group);
+                outbox.add(mail);
+                byKey.put(mail.getIdempotencyKey(), group);
             } catch (Exception ex) {
-                log.error("Failed to send Email for event {}", e.getId(), ex);
+                // claim stays with this node, the reminder is retried on the next run
+                log.error("Failed to build Email for event {}", group.get(0).getEventId(), ex);
             }
         }
 
-        if (!okIds.isEmpty()) {
-            int updated = repo.markRemindersSentByIds(okIds);
-            //System.out.println("Proccessed "+updated+" reminders at "+now);
-            log.info("Proccessed {} reminders at {} ",updated,now);
+        if (outbox.isEmpty() && withoutMail.isEmpty()) {
+            return;
         }
 
+        transactionTemplate.executeWithoutResult(status -> {
+
+            List<ReminderDispatchView> claimed = new ArrayList<>(withoutMail);
+            byKey.values().forEach(claimed::addAll);
+            Map<Long, Reminder> owned = lockOwnedReminders(owner, claimed);
+
+            // a mail is only written when this node still owns every reminder in it, the others stay
+            // claimed and are retried on the next run (or by the node that took them over)
+            List<ReminderOutbox> mails = new ArrayList<>();
+            List<ReminderDispatchView> acknowledged = new ArrayList<>();
+            Set<Long> mailedIds = new HashSet<>();
+            for (ReminderOutbox mail : outbox) {
+                List<ReminderDispatchView> group = byKey.get(mail.getIdempotencyKey());
+                if (group.stream().allMatch(e -> owned.containsKey(e.getReminderId()))) {
+                    mails.add(mail);
+                    acknowledged.addAll(group);
+                    group.forEach(e -> mailedIds.add(e.getReminderId()));
+                }
+            }
+            withoutMail.stream().filter(e -> owned.containsKey(e.getReminderId())).forEach(acknowledged::add);
+
+            int updated = acknowledgeReminders(owner, now, acknowledged, owned, mailedIds);
+
+            // reminders already enqueued and still undelivered (e.g. acknowledged by an earlier run of this node),
+            // alone or in a digest, are left out; a digest is rendered again for the rest of its reminders
+            Set<String> enqueued = mails.isEmpty() ? Set.of() : new HashSet<>(outboxRepo.findEnqueuedItemKeys(
+                    mails.stream().flatMap(mail -> byKey.get(mail.getIdempotencyKey()).stream())
+                            .map(EventService::itemKeyOf)
+                            .toList()));
+            if (!enqueued.isEmpty()) {
+                List<ReminderOutbox> remaining = new ArrayList<>();
+                for (ReminderOutbox mail : mails) {
+                    List<ReminderDispatchView> group = byKey.get(mail.getIdempotencyKey());
+                    List<ReminderDispatchView> rest = group.stream()
+                            .filter(e -> !enqueued.contains(itemKeyOf(e)))
+                            .toList();
+                    if (rest.size() == group.size()) {
+                        remaining.add(mail);
+                    } else if (!rest.isEmpty()) {
+                        remaining.add(mailFor(rest));
+                    }
+                }
+                mails = remaining;
+            }
+            outboxRepo.saveAll(mails);
+
+            log.info("Proccessed {} reminders in {} mails at {} on node {}",updated,mails.size(),now,owner);
+        });
     }
 
-    private void createNextOccurenceIfRecurring(Event e) {
-        if (e.getRecurrenceType() == null || e.getRecurrenceType() == RecurrenceType.NONE) {
-            return;
+    // one reminder mail, or a digest keyed by all its reminders
+    private ReminderOutbox mailFor(List<ReminderDispatchView> group) {
+        ReminderDispatchView first = group.get(0);
+        ReminderOutbox mail = new ReminderOutbox();
+        mail.setEventId(first.getEventId());
+        mail.setRecipient(first.getRecipientEmail());
+
+        if (group.size() == 1) {
+            mail.setIdempotencyKey(itemKeyOf(first));
+            mail.setOccurrenceDate(first.getEventDate());
+            mail.setSubject("Reminder: "+first.getTitle());
+            mail.setHtmlBody(emailService.buildReminderHtml(
+                    first.getTitle(), first.getEventDate(), first.getDescription()));
+        } else {
+            mail.setItemKeys(group.stream().map(EventService::itemKeyOf).collect(Collectors.toCollection(ArrayList::new)));
+            mail.setIdempotencyKey(ReminderOutbox.digestKeyFor(mail.getItemKeys()));
+            mail.setSubject("Reminder: " + group.size() + " upcoming events");
+            mail.setHtmlBody(emailService.buildReminderDigestHtml(group));
+        }
+        return mail;
+    }
+
+    private static String itemKeyOf(ReminderDispatchView e) {
+        return ReminderOutbox.keyFor(e.getEventId(), e.getEventDate(), e.getReminderId());
+    }
+
+    // one group per mail: every reminder alone, or in digest mode all reminders of a recipient together
+    private List<List<ReminderDispatchView>> groupForMails(List<ReminderDispatchView> dueEvents) {
+        if (!digestEnabled) {
+            return dueEvents.stream().map(List::of).toList();
+        }
+        return byRecipient(dueEvents);
+    }
+
+    private static List<List<ReminderDispatchView>> byRecipient(List<ReminderDispatchView> reminders) {
+        return new ArrayList<>(reminders.stream()
+                .collect(Collectors.groupingBy(ReminderDispatchView::getRecipientEmail,
+                        LinkedHashMap::new, Collectors.toList()))
+                .values());
+    }
+
+    // locked reminder rows still claimed by this node for the occurrence that was read, by id
+    private Map<Long, Reminder> lockOwnedReminders(String owner, List<ReminderDispatchView> claimed) {
+        if (claimed.isEmpty()) {
+            return Map.of();
         }
+        Map<Long, ReminderDispatchView> byId = new HashMap<>();
+        claimed.forEach(e -> byId.put(e.getReminderId(), e));
+
+        Map<Long, Reminder> owned = new HashMap<>();
+        for (Reminder r : reminderRepo.lockClaimed(byId.keySet(), owner)) {
+            // another node already moved a series reminder on
+            if (byId.get(r.getId()).getEventDate().equals(r.getOccurrenceDate())) {
+                owned.put(r.getId(), r);
+            }
+        }
+        return owned;
+    }
 
+    /*
+     * Reminders of single events are marked sent in one statement. The reminder of a recurring series
+     * stays one row that moves on to the next occurrence, the fired occurrence is recorded in
+     * reminder_occurrences. Neither touches the wide events rows except for the summary flag.
+     * Every reminder passed in is owned by this node and locked (see lockOwnedReminders).
+     */
+    private int acknowledgeReminders(String owner, LocalDateTime now, List<ReminderDispatchView> reminders,
+                                     Map<Long, Reminder> owned, Set<Long> mailedIds) {
+        if (reminders.isEmpty()) {
+            return 0;
+        }
+        List<Long> singleIds = new ArrayList<>();
+        Map<Long, ReminderDispatchView> series = new LinkedHashMap<>();
+        for (ReminderDispatchView e : reminders) {
+            if (e.getRecurrenceType() == null || e.getRecurrenceType() == RecurrenceType.NONE) {
+                singleIds.add(e.getReminderId());
+            } else {
+                series.put(e.getReminderId(), e);
+            }
+        }
+
+        int updated = singleIds.isEmpty() ? 0 : reminderRepo.markSentByIds(singleIds, owner, now);
+
+        if (!series.isEmpty()) {
+            Map<Long, Set<LocalDate>> exceptionDates = exceptionDatesOf(series.values().stream()
+                    .map(ReminderDispatchView::getEventId)
+                    .collect(Collectors.toSet()));
+
+            List<ReminderOccurrence> fired = new ArrayList<>();
+            List<Reminder> advanced = new ArrayList<>();
+
+            for (ReminderDispatchView e : series.values()) {
+                Reminder r = owned.get(e.getReminderId());
+                LocalDate occurrence = e.getEventDate();
+
+                if (mailedIds.contains(r.getId())) {
+                    fired.add(new ReminderOccurrence(e.getEventId(), occurrence, now));
+                }
+
+                r.setClaimOwner(null);
+                r.setClaimExpiry(null);
+                r.setSentTime(now);
+
+                LocalDate next = nextSeriesOccurrence(e, occurrence,
+                        exceptionDates.getOrDefault(e.getEventId(), Set.of()));
+                if (next == null) {
+                    r.setSent(true);
+                } else {
+                    r.setOccurrenceDate(next);
+                    r.setFireAt(Reminder.fireTimeFor(next, r.getOffsetMinutes()));
+                }
+                advanced.add(r);
+            }
+
+            occurrenceRepo.saveAll(fired);
+            scheduleAfterCommit(reminderRepo.saveAll(advanced));
+            updated += advanced.size();
+        }
+
+        repo.markReminderDoneForEvents(reminders.stream()
+                .map(ReminderDispatchView::getEventId)
+                .collect(Collectors.toSet()), now);
+        return updated;
+    }
+
+    // the occurrence after the given one, moved or skipped occurrences carry their own reminder
+    private LocalDate nextSeriesOccurrence(ReminderDispatchView e, LocalDate occurrence, Set<LocalDate> exceptionDates) {
         int interval = (e.getRecurrenceInterval() != null && e.getRecurrenceInterval() > 0)
                 ? e.getRecurrenceInterval()
                 : 1;
 
-        LocalDate nextDate = e.getEventDate();
+        LocalDate next = addInterval(occurrence, e.getRecurrenceType(), interval);
+        while (exceptionDates.contains(next)) {
+            next = addInterval(next, e.getRecurrenceType(), interval);
+        }
 
-        nextDate = addInterval(nextDate , e.getRecurrenceType(),interval);
-        /*switch (e.getRecurrenceType()) {
-            case DAILY -> nextDate = nextDate.plusDays(interval);
-            case WEEKLY -> nextDate = nextDate.plusWeeks(interval);
-            case MONTHLY -> nextDate = nextDate.plusMonths(interval);
-            case YEARLY -> nextDate = nextDate.plusYears(interval);
-        }*/
+        if (e.getRecurrenceEndDate() != null && e.getRecurrenceEndDate().isBefore(next)) {
+            return null;
+        }
+        return next;
+    }
 
-        if(e.getRecurrenceEndDate() != null && e.getRecurrenceEndDate().isBefore(nextDate)) {
-            return;
+    /*
+     * Assembled from per-month buckets of CalendarCache, only the months not cached yet are
+     * queried and expanded, as one contiguous range.
+     */
+    public List<EventResponse> getCalendarEvents(User user,LocalDate start,LocalDate end) {
+        if (!calendarCache.isEnabled()) {
+            return expandCalendar(user, start, end);
         }
 
-        Event next = new Event();
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth m = YearMonth.from(start); !m.isAfter(YearMonth.from(end)); m = m.plusMonths(1)) {
+            months.add(m);
+        }
 
-        next.setTitle(e.getTitle());
-        next.setDescription(e.getDescription());
-        next.setUser(e.getUser());
-        next.setEventDate(nextDate);
+        long version = calendarCache.version(user.getId());
+        Map<YearMonth, List<EventResponse>> buckets = new HashMap<>(calendarCache.get(user.getId(), months));
 
+        List<YearMonth> missing = months.stream().filter(m -> !buckets.containsKey(m)).toList();
+        if (!missing.isEmpty()) {
+            YearMonth first = missing.get(0);
+            YearMonth last = missing.get(missing.size() - 1);
 
-        if (e.getReminderTime() != null ) {
+            Map<YearMonth, List<EventResponse>> computed = new HashMap<>();
+            for (YearMonth m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+                computed.put(m, new ArrayList<>());
+            }
+            for (EventResponse occurrence : expandCalendar(user, first.atDay(1), last.atEndOfMonth())) {
+                computed.get(YearMonth.from(occurrence.getEventDate())).add(occurrence);
+            }
+
+            calendarCache.put(user.getId(), computed, version);
+            buckets.putAll(computed);
+        }
 
-            LocalDateTime nextReminder = e.getReminderTime();
-            switch (e.getRecurrenceType()) {
-                case DAILY -> nextReminder = nextReminder.plusDays(interval);
-                case WEEKLY -> nextReminder = nextReminder.plusWeeks(interval);
-                case MONTHLY -> nextReminder = nextReminder.plusMonths(interval);
-                case YEARLY -> nextReminder = nextReminder.plusYears(interval);
+        List<EventResponse> result = new ArrayList<>();
+        for (YearMonth month : months) {
+            for (EventResponse occurrence : buckets.get(month)) {
+                if (!occurrence.getEventDate().isBefore(start) && !occurrence.getEventDate().isAfter(end)) {
+                    result.add(occurrence);
+                }
             }
-            next.setReminderTime(nextReminder);
         }
+        return result;
+    }
+
+    /** next {@code count} dates of the event from today on, computed from the series, nothing is expanded */
+    public NextOccurrencesResponse getNextOccurrences(User user, Long id, int count) {
+        validateOccurrenceCount(count);
+        Event event = getEventById(user, id);
+
+        boolean recurring = event.getRecurrenceType() != null && event.getRecurrenceType() != RecurrenceType.NONE
+                && !event.isException();
+        Set<LocalDate> exceptionDates = recurring
+                ? exceptionDatesOf(List.of(event.getId())).getOrDefault(event.getId(), Set.of())
+                : Set.of();
+        return nextOccurrencesOf(event, recurring, exceptionDates, LocalDate.now(), count);
+    }
+
+    /** the same for every series of the user that has not ended, with one query for all exceptions */
+    public List<NextOccurrencesResponse> getNextOccurrencesOfSeries(User user, int count) {
+        validateOccurrenceCount(count);
+        LocalDate today = LocalDate.now();
+
+        List<Event> masters = repo.findRecurringMastersFrom(user, today);
+        if (masters.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<LocalDate>> exceptionDates = exceptionDatesOf(masters.stream().map(Event::getId).toList());
+
+        List<NextOccurrencesResponse> result = new ArrayList<>(masters.size());
+        for (Event master : masters) {
+            result.add(nextOccurrencesOf(master, true,
+                    exceptionDates.getOrDefault(master.getId(), Set.of()), today, count));
+        }
+        return result;
+    }
 
-        next.setRecurrenceType(e.getRecurrenceType());
-        next.setRecurrenceInterval(interval);
-        next.setRecurrenceEndDate(e.getRecurrenceEndDate());
+    private NextOccurrencesResponse nextOccurrencesOf(Event event, boolean recurring, Set<LocalDate> exceptionDates,
+                                                      LocalDate from, int count) {
+        List<LocalDate> dates = RecurrenceMath.nextOccurrences(event.getEventDate(),
+                recurring ? event.getRecurrenceType() : RecurrenceType.NONE,
+                event.getRecurrenceInterval() != null ? event.getRecurrenceInterval() : 1,
+                event.getRecurrenceEndDate(), exceptionDates, from, count);
+        return new NextOccurrencesResponse(event.getId(), event.getTitle(), dates);
+    }
 
-        repo.save(next);
+    private void validateOccurrenceCount(int count) {
+        if (count < 1 || count > MAX_NEXT_OCCURRENCES) {
+            throw new BadRequestException("count must be between 1 and " + MAX_NEXT_OCCURRENCES);
+        }
     }
 
-    public List<EventResponse> getCalendarEvents(User user,LocalDate start,LocalDate end) {
+    /*
+     * The next {@code limit} occurrences from {@code from} on (or after the cursor of the previous page),
+     * in date order. Only as much of each series is expanded as the page takes.
+     */
+    public AgendaPageResponse getAgenda(User user, LocalDate from, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_AGENDA_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_AGENDA_LIMIT);
+        }
+        // ids start at 1, so (from, 0) is before everything on that day
+        AgendaIterator.Position after = cursor != null ? decodeAgendaCursor(cursor)
+                : new AgendaIterator.Position(from, 0L);
+
+        List<Event> masters = repo.findRecurringMastersFrom(user, after.date());
+        Map<Long, Set<LocalDate>> exceptionDates = masters.isEmpty()
+                ? Map.of()
+                : exceptionDatesOf(masters.stream().map(Event::getId).toList());
+        // a page never takes more than limit of them, the one after tells whether there is a next page
+        List<Event> standalone = repo.findStandaloneAfter(user, after.date(), after.eventId(),
+                PageRequest.of(0, limit + 1));
+
+        AgendaIterator agenda = new AgendaIterator(masters, exceptionDates, standalone, after,
+                this::createOccurrenceFromMaster);
+
+        List<EventResponse> items = new ArrayList<>();
+        while (items.size() < limit && agenda.hasNext()) {
+            items.add(agenda.next());
+        }
+        String nextCursor = agenda.hasNext() ? encodeAgendaCursor(agenda.lastPosition()) : null;
+        return new AgendaPageResponse(items, nextCursor);
+    }
+
+    private static String encodeAgendaCursor(AgendaIterator.Position position) {
+        String raw = position.date() + ":" + position.eventId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AgendaIterator.Position decodeAgendaCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new AgendaIterator.Position(LocalDate.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid agenda cursor.");
+        }
+    }
+
+    // checked before the response is committed, a failure inside the stream could no longer be a 400
+    public void validateStreamRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new BadRequestException("end must not be before start");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_STREAM_DAYS) {
+            throw new BadRequestException("range must not be longer than " + MAX_STREAM_DAYS + " days");
+        }
+    }
+
+    /*
+     * Same occurrences as getCalendarEvents, handed to the sink in date order one window at a time,
+     * so only one window of a long range is ever held. Series and their exceptions are read once,
+     * single and moved events per window.
+     */
+    public void streamCalendarEvents(User user, LocalDate start, LocalDate end, Consumer<EventResponse> sink) {
+        validateStreamRange(start, end);
+        List<Event> masters = repo.findRecurringMasterAffectingRange(user, start, end);
+        Map<Long, int[]> exceptionDays = masters.isEmpty()
+                ? Map.of()
+                : exceptionDaysOf(masters.stream().map(Event::getId).toList());
+
+        LocalDate from = start;
+        while (!from.isAfter(end)) {
+            LocalDate to = from.plusDays(STREAM_WINDOW_DAYS - 1);
+            if (to.isAfter(end)) {
+                to = end;
+            }
+
+            List<EventResponse> window = new ArrayList<>();
+            repo.findSinglesInRange(user, from, to).forEach(e -> window.add(EventResponse.fromEntity(e)));
+            repo.findExceptionsInRange(user, from, to).forEach(e -> window.add(EventResponse.fromEntity(e)));
+            for (Event master : masters) {
+                window.addAll(expandMastersIntoOcurrences(master, from, to,
+                        exceptionDays.getOrDefault(master.getId(), NO_DAYS)));
+            }
+
+            window.sort(Comparator.comparing(EventResponse::getEventDate));
+            window.forEach(sink);
+            from = to.plusDays(1);
+        }
+    }
+
+    private List<EventResponse> expandCalendar(User user, LocalDate start, LocalDate end) {
 
         List<EventResponse> result = new ArrayList<>();
 
+        // one range scan over the materialized dates when the range is inside the horizon
+        Optional<List<Object[]>> indexed = occurrenceIndex.findInRange(user, start, end);
+        if (indexed.isPresent()) {
+            Map<Long, OccurrenceTemplate> templates = new HashMap<>();
+            for (Object[] row : indexed.get()) {
+                LocalDate date = (LocalDate) row[0];
+                Event e = (Event) row[1];
+                boolean occurrenceOfSeries = e.getRecurrenceType() != null
+                        && e.getRecurrenceType() != RecurrenceType.NONE && !e.isException();
+                result.add(occurrenceOfSeries
+                        ? templates.computeIfAbsent(e.getId(), id -> new OccurrenceTemplate(e)).at(date)
+                        : EventResponse.fromEntity(e));
+            }
+            return result;
+        }
+
         // single events in this range
         List<Event> singles = repo.findSinglesInRange(user,start,end);
 
@@ -320,70 +1041,51 @@ public class EventService {
         List<Event> exceptions = repo.findExceptionsInRange(user,start,end);
         exceptions.forEach(e -> result.add(EventResponse.fromEntity(e)));
 
-
-        Map <Long , List<Event>> exceptionsByParent =  new HashMap<>();
-        for (Event ex :  exceptions) {
-            if (ex.getParentEventId() != null) {
-                exceptionsByParent
-                        .computeIfAbsent(ex.getParentEventId(), k -> new ArrayList<>())
-                        .add(ex);
-            }
-        }
-
         // recurring masters
         List<Event> masters = repo.findRecurringMasterAffectingRange(user,start,end);
+        if (masters.isEmpty()) {
+            return result;
+        }
 
+        // moved or skipped occurrences, wherever they were moved to
+        Map<Long, int[]> exceptionDays = exceptionDaysOf(masters.stream().map(Event::getId).toList());
 
-        for (Event master :  masters) {
-            List<Event> exForThisMaster = exceptionsByParent.getOrDefault(master.getId(),List.of());
+        // many series or a long range: split the masters across the expansion pool, merged in date order
+        // together with the (few) single and moved events
+        if (expansionPool.worthParallel(masters.size(), DAYS.between(start, end) + 1)) {
+            List<EventResponse> expanded = expansionPool.expand(masters, master ->
+                    expandMastersIntoOcurrences(master, start, end, exceptionDays.getOrDefault(master.getId(), NO_DAYS)));
+            result.sort(Comparator.comparing(EventResponse::getEventDate));
+            return CalendarExpansionPool.merge(result, expanded);
+        }
 
+        for (Event master :  masters) {
             result.addAll(
-                expandMastersIntoOcurrences(master,start,end,exForThisMaster)
+                expandMastersIntoOcurrences(master,start,end,exceptionDays.getOrDefault(master.getId(), NO_DAYS))
             );
         }
 
-
         return result;
-
     }
 
     private List<EventResponse> expandMastersIntoOcurrences(
             Event master,
             LocalDate rangeStart, LocalDate rangeEnd,
-            List<Event> exceptions
+            int[] exceptionDays
     ) {
 
-        List<EventResponse> list = new ArrayList<>();
-
         int interval = (master.getRecurrenceInterval() != null && master.getRecurrenceInterval() > 0)
                 ? master.getRecurrenceInterval() : 1;
 
-        LocalDate cursor = master.getEventDate();
+        //epoch days of the visible occurrences, seeked to rangeStart and stepped on ints
+        int[] days = RecurrenceMath.occurrenceDays(master.getEventDate(), master.getRecurrenceType(), interval,
+                master.getRecurrenceEndDate(), exceptionDays, rangeStart, rangeEnd);
 
-        //bring cursor forward to first visible date
-        while (cursor.isBefore(rangeStart)) {
-            cursor = addInterval(cursor, master.getRecurrenceType(), interval);
-        }
-
-        //master series ends either at its recurrenceEndDate or at rangeEnd
-        LocalDate limit = master.getRecurrenceEndDate() != null &&
-                master.getRecurrenceEndDate().isBefore(rangeEnd)
-                ? master.getRecurrenceEndDate()
-                : rangeEnd;
-
-        // create indexed exception map
-        Set<LocalDate> exceptionDates = exceptions.stream()
-                .map(Event::getOriginalDate)
-                .collect(Collectors.toSet());
-
-        //expand occurrences
-        while (!cursor.isAfter(limit)) {
-
-            if (!exceptionDates.contains(cursor)) {
-                list.add(createOccurrenceFromMaster(master, cursor));
-            }
-
-            cursor = addInterval(cursor, master.getRecurrenceType(), interval);
+        //responses only for what is returned, the reminder shift is worked out once per series
+        List<EventResponse> list = new ArrayList<>(days.length);
+        OccurrenceTemplate template = new OccurrenceTemplate(master);
+        for (int day : days) {
+            list.add(template.at(LocalDate.ofEpochDay(day)));
         }
 
         return list;
@@ -407,6 +1109,9 @@ public class EventService {
         }
         validateEventDate(newDate);
 
+        // every mode may change the series from its earliest affected date on (split, shifted end, ...)
+        LocalDate affectedFrom = Collections.min(List.of(master.getEventDate(), originalDate, newDate));
+
         String mode = req.getMode().toUpperCase();
 
         switch (mode) {
@@ -425,6 +1130,7 @@ public class EventService {
             default:
                 throw new BadRequestException("Unknown mode: " + mode);
         }
+        calendarChanged(user, affectedFrom, null);
     }
 
     private void moveSingleOcurrence(User user ,Event master,LocalDate originalDate, LocalDate newDate) {
@@ -472,7 +1178,9 @@ public class EventService {
 
         ex.setEventDate(newDate);
         ex.setTitle(master.getTitle()+" # "+newDate);
-        repo.save(ex);
+        copyReminders(master, repo.save(ex));
+        // the moved occurrence is an exception now and no longer reminded by the series
+        syncReminders(master);
 
     }
 
@@ -493,7 +1201,7 @@ public class EventService {
         if (existingException != null) {
 
             existingException.setEventDate(null);
-            repo.save(existingException);
+            syncReminders(repo.save(existingException));
 
 
             newMaster = repo.findMasterByParent(master.getId(), originalDate);
@@ -508,7 +1216,7 @@ public class EventService {
 
             LocalDate cutEnd = originalDate.minusDays(1);
             master.setRecurrenceEndDate(cutEnd);
-            repo.save(master);
+            syncReminders(repo.save(master));
 
 
             Event skip = new Event();
@@ -542,9 +1250,10 @@ public class EventService {
 
             newMaster.setEventDate(newStartDate);
             //newMaster.setTitle(newMaster.getTitle()+" # "+newStartDate);
-            repo.save(newMaster);
+            copyReminders(master, repo.save(newMaster));
         }
 
+        reminderRepo.deleteForExceptionsOfMasterAfter(master.getId(), originalDate);
         repo.deleteExceptionsForMasterAfter(master.getId(), originalDate);
     }
 
@@ -560,7 +1269,7 @@ public class EventService {
             ));
         }
 
-        repo.save(newMaster);
+        syncReminders(repo.save(newMaster));
     }
 
     private  void moveAllOcurrences(User user ,Event master , LocalDate newStartDate) {
@@ -624,8 +1333,10 @@ public class EventService {
             realMaster.setRecurrenceEndDate(realNewRecurrenceEndDate);
         }
 
-        repo.save(master);
+        Event saved = repo.save(master);
+        reminderRepo.deleteForExceptionsOfMaster(master.getId());
         repo.deleteExceptionsOfMaster(master.getId());
+        syncReminders(saved);
     }
 
     private void validateEventDate(LocalDate newDate) {
@@ -641,6 +1352,13 @@ public class EventService {
         }
     }
 
+    private void validateReminderNotPast(Reminder reminder) {
+        if (reminder.isSent() || reminder.getFireAt() == null) {
+            throw new BadRequestException("No occurrence of this event is left to remind.");
+        }
+        validateReminderNotPast(reminder.getFireAt());
+    }
+
     /*private void moveExistingException(Event ex, LocalDate newDate) {
 
         validateEventDate(newDate);
@@ -669,23 +1387,36 @@ public class EventService {
 
         validateEventDate(newDate);
 
+        LocalDate shownFrom = e.getEventDate();
+        LocalDate shownTo = CalendarCache.lastDateOf(e);
 
         if (e.getReminderTime() != null) {
             e.setReminderTime(updateReminderTime(e.getReminderTime(), e.getEventDate(), newDate));
         }
 
         e.setEventDate(newDate);
-        repo.save(e);
+        Event saved = repo.save(e);
+        syncReminders(saved);
+        calendarChanged(user, shownFrom, shownTo);
+        calendarChanged(user, saved);
+    }
+
+    // materialized dates first, the cache must not be refilled from stale index rows
+    private void calendarChanged(User user, LocalDate from, LocalDate to) {
+        occurrenceIndex.rebuild(user, from, to);
+        calendarCache.invalidate(user.getId(), from, to);
+    }
+
+    private void calendarChanged(User user, Event e) {
+        calendarChanged(user, e.getEventDate(), CalendarCache.lastDateOf(e));
+        // an exception also hides the series occurrence it replaced
+        if (e.isException() && e.getOriginalDate() != null) {
+            calendarChanged(user, e.getOriginalDate(), e.getOriginalDate());
+        }
     }
 
     private LocalDate addInterval(LocalDate d, RecurrenceType type, int interval) {
-        return switch (type) {
-            case DAILY -> d.plusDays(interval);
-            case WEEKLY -> d.plusWeeks(interval);
-            case MONTHLY -> d.plusMonths(interval);
-            case YEARLY -> d.plusYears(interval);
-            default -> d;
-        };
+        return RecurrenceMath.addInterval(d, type, interval);
     }
 
     private LocalDateTime updateReminderTime(LocalDateTime oldReminder,
@@ -705,26 +1436,48 @@ public class EventService {
     }
 
     private EventResponse createOccurrenceFromMaster(Event master, LocalDate date) {
-        EventResponse dto = new EventResponse();
-
-        dto.setId(master.getId());
-        dto.setTitle(master.getTitle());
-        dto.setDescription(master.getDescription());
+        return new OccurrenceTemplate(master).at(date);
+    }
 
-        if (master.getReminderTime() != null) {
-            dto.setReminderTime(updateReminderTime(master.getReminderTime(),master.getEventDate(), date));
+    /*
+     * Response of an occurrence of one series. The reminder keeps the master's lead (days before the
+     * occurrence, time of day), worked out once instead of per occurrence. Past occurrences keep their
+     * past reminder time, showing them is not scheduling them.
+     */
+    private static final class OccurrenceTemplate {
+        private final Event master;
+        private final long reminderLeadDays;
+        private final LocalTime reminderTime;
+
+        OccurrenceTemplate(Event master) {
+            this.master = master;
+            LocalDateTime reminder = master.getReminderTime();
+            this.reminderLeadDays = reminder == null ? 0 : DAYS.between(reminder.toLocalDate(), master.getEventDate());
+            this.reminderTime = reminder == null ? null : reminder.toLocalTime();
         }
 
-        dto.setEventDate(date);
-        dto.setRecurrenceType(master.getRecurrenceType());
-        dto.setRecurrenceInterval(master.getRecurrenceInterval());
-        dto.setRecurrenceEndDate(master.getRecurrenceEndDate());
+        EventResponse at(LocalDate date) {
+            EventResponse dto = new EventResponse();
+
+            dto.setId(master.getId());
+            dto.setTitle(master.getTitle());
+            dto.setDescription(master.getDescription());
+
+            if (reminderTime != null) {
+                dto.setReminderTime(LocalDateTime.of(date.minusDays(reminderLeadDays), reminderTime));
+            }
+
+            dto.setEventDate(date);
+            dto.setRecurrenceType(master.getRecurrenceType());
+            dto.setRecurrenceInterval(master.getRecurrenceInterval());
+            dto.setRecurrenceEndDate(master.getRecurrenceEndDate());
 
-        dto.setParentEventId(master.getId());
-        dto.setException(false);
-        dto.setOriginalDate(date);
+            dto.setParentEventId(master.getId());
+            dto.setException(false);
+            dto.setOriginalDate(date);
 
-        return dto;
+            return dto;
+        }
     }
 
 }
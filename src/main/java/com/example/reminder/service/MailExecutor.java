@@ -0,0 +1,138 @@
+package com.example.reminder.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs all mail work (single sends and SMTP batches) on virtual threads.
+ * A semaphore caps the number of concurrent SMTP sessions, the tasks waiting for a permit form a
+ * bounded queue: when it is full, submit() blocks the caller (backpressure for the dispatcher)
+ * and rejects after offerTimeoutMs.
+ *
+ * A task may come with a gate (the rate limiter) that is passed before the task takes a send permit,
+ * so a task waiting for rate tokens never holds an SMTP slot another mail class could use.
+ *
+ * Intentionally not a java.util.concurrent.Executor bean, so Spring Boot keeps its own
+ * applicationTaskExecutor for @Async and MVC async requests.
+ */
+@Slf4j
+@Component
+public class MailExecutor {
+
+    private final ExecutorService virtualThreads =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mail-", 0).factory());
+
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final long offerTimeoutMs;
+
+    // concurrent SMTP sessions
+    private final Semaphore sendPermits;
+    // running + queued tasks
+    private final Semaphore admission;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    public MailExecutor(@Value("${app.mail.max-concurrency:4}") int maxConcurrency,
+                        @Value("${app.mail.queue-capacity:500}") int queueCapacity,
+                        @Value("${app.mail.offer-timeout-ms:5000}") long offerTimeoutMs) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.sendPermits = new Semaphore(this.maxConcurrency, true);
+        this.admission = new Semaphore(this.maxConcurrency + this.queueCapacity, true);
+    }
+
+    /** waited for on the task's own thread before it takes a send permit */
+    @FunctionalInterface
+    public interface Gate {
+        void pass() throws InterruptedException;
+    }
+
+    private static final Gate OPEN = () -> { };
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return submit(task, OPEN);
+    }
+
+    public <T> Future<T> submit(Callable<T> task, Gate gate) {
+        try {
+            if (!admission.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Mail queue is full (" + queueCapacity + " tasks)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Interrupted while waiting for the mail queue", e);
+        }
+
+        queued.incrementAndGet();
+        try {
+            return virtualThreads.submit(() -> run(task, gate));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            admission.release();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public void execute(Runnable task) {
+        submit(Executors.callable(task));
+    }
+
+    public Future<?> execute(Runnable task, Gate gate) {
+        return submit(Executors.callable(task), gate);
+    }
+
+    private <T> T run(Callable<T> task, Gate gate) throws Exception {
+        try {
+            gate.pass();
+            sendPermits.acquire();
+        } catch (Throwable e) {
+            // interrupted, or the gate failed: the task never runs, its queue slot is given back
+            queued.decrementAndGet();
+            admission.release();
+            throw e;
+        }
+
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        try {
+            return task.call();
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            sendPermits.release();
+            admission.release();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queued.get());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("activeSends", active.get());
+        metrics.put("maxConcurrency", maxConcurrency);
+        metrics.put("rejectedTasks", rejected.get());
+        metrics.put("completedTasks", completed.get());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.reminder.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets in front of SMTP so a backlog burst does not get us throttled by the provider.
+ *
+ * The provider bucket holds the overall budget (rate + burst, preset per provider, overridable).
+ * Reminder mail additionally draws from its own, smaller bucket and may never take the last
+ * transactionalReserve tokens of the provider bucket. Transactional mail (verification, password
+ * reset) only needs the provider bucket, and while it waits no reminder may take a token,
+ * so it always goes first.
+ *
+ * The buckets live in this node. With several replicas sending through the same provider account,
+ * set app.mail.rate.nodes to the replica count: each node then gets rate / nodes and burst / nodes,
+ * so the cluster together stays within the provider budget (a quiet node's share goes unused).
+ */
+@Slf4j
+@Component
+public class MailRateLimiter {
+
+    public enum MailClass {
+        REMINDER,
+        TRANSACTIONAL
+    }
+
+    /** default budget of the mail provider, messages per second and burst size */
+    public enum MailProvider {
+        GENERIC(10, 20),
+        GMAIL(2, 10),
+        SES(14, 14);
+
+        private final double perSecond;
+        private final int burst;
+
+        MailProvider(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+
+    private final boolean enabled;
+    private final MailProvider provider;
+    private final int nodes;
+    private final Bucket providerBucket;
+    private final Bucket reminderBucket;
+    private final double transactionalReserve;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition tokensChanged = lock.newCondition();
+    private int transactionalWaiting = 0;
+
+    public MailRateLimiter(@Value("${app.mail.rate.enabled:true}") boolean enabled,
+                           @Value("${app.mail.rate.provider:GENERIC}") MailProvider provider,
+                           @Value("${app.mail.rate.per-second:-1}") double perSecond,
+                           @Value("${app.mail.rate.burst:-1}") int burst,
+                           @Value("${app.mail.rate.reminder-share:0.8}") double reminderShare,
+                           @Value("${app.mail.rate.transactional-reserve:2}") int transactionalReserve,
+                           @Value("${app.mail.rate.nodes:1}") int nodes) {
+        this.enabled = enabled;
+        this.provider = provider;
+        this.nodes = Math.max(1, nodes);
+
+        // this node's share of the provider budget
+        double rate = (perSecond > 0 ? perSecond : provider.perSecond) / this.nodes;
+        int capacity = Math.max(1, (burst > 0 ? burst : provider.burst) / this.nodes);
+        double share = Math.min(1.0, Math.max(0.05, reminderShare));
+
+        this.providerBucket = new Bucket(rate, capacity);
+        this.reminderBucket = new Bucket(rate * share, Math.max(1, (int) (capacity * share)));
+        this.transactionalReserve = Math.min(transactionalReserve, capacity - 1);
+
+        log.info("Mail rate limit for {} on this node (1 of {}): {}/s, burst {}, reminder share {}",
+                provider, this.nodes, rate, capacity, share);
+    }
+
+    /** blocks until one message of the given class may be sent */
+    public void acquire(MailClass mailClass) throws InterruptedException {
+        if (!enabled) return;
+
+        lock.lock();
+        try {
+            if (mailClass == MailClass.TRANSACTIONAL) {
+                transactionalWaiting++;
+                try {
+                    while (!tryTakeTransactional()) {
+                        tokensChanged.awaitNanos(providerBucket.nanosUntil(1, 0));
+                    }
+                } finally {
+                    transactionalWaiting--;
+                    tokensChanged.signalAll();
+                }
+            } else {
+                while (!tryTakeReminder()) {
+                    long wait = Math.max(providerBucket.nanosUntil(1, transactionalReserve), reminderBucket.nanosUntil(1, 0));
+                    tokensChanged.awaitNanos(transactionalWaiting > 0 ? TimeUnit.MILLISECONDS.toNanos(50) : wait);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryTakeTransactional() {
+        return providerBucket.tryTake(0);
+    }
+
+    private boolean tryTakeReminder() {
+        if (transactionalWaiting > 0) return false;
+        if (!reminderBucket.hasToken(0) || !providerBucket.hasToken(transactionalReserve)) return false;
+        reminderBucket.tryTake(0);
+        providerBucket.tryTake(transactionalReserve);
+        return true;
+    }
+
+    public Map<String, Object> metrics() {
+        lock.lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("enabled", enabled);
+            metrics.put("provider", provider);
+            metrics.put("nodes", nodes);
+            metrics.put("providerTokens", providerBucket.available());
+            metrics.put("reminderTokens", reminderBucket.available());
+            metrics.put("transactionalWaiting", transactionalWaiting);
+            return metrics;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // classic token bucket, refilled lazily; callers hold the limiter lock
+    private static final class Bucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(double perSecond, double capacity) {
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+
+        boolean hasToken(double keep) {
+            refill();
+            return tokens - 1 >= keep;
+        }
+
+        boolean tryTake(double keep) {
+            if (!hasToken(keep)) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        long nanosUntil(double count, double keep) {
+            refill();
+            double missing = count + keep - tokens;
+            return missing <= 0 ? 0 : Math.max(1, (long) Math.ceil(missing / tokensPerNano));
+        }
+
+        double available() {
+            refill();
+            return Math.floor(tokens * 100) / 100;
+        }
+    }
+}
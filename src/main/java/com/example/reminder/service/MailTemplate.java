@@ -0,0 +1,135 @@
+package com.example.reminder.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mail HTML template compiled once into literal segments and slots.
+ * {{name}} is HTML-escaped, {{{name}}} is inserted as is (for already rendered HTML).
+ * Slots are bound by position: compile(source, "title", "date") -> render(title, date).
+ * render() allocates its StringBuilder once, sized from the literals and the values.
+ */
+public final class MailTemplate {
+
+    private final String[] literals;   // literals[i] comes before slot i, one more literal than slots
+    private final int[] slotIndexes;   // position of the value rendered into slot i
+    private final boolean[] escaped;
+    private final int slotCount;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, int[] slotIndexes, boolean[] escaped, int slotCount) {
+        this.literals = literals;
+        this.slotIndexes = slotIndexes;
+        this.escaped = escaped;
+        this.slotCount = slotCount;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    public static MailTemplate compile(String source, String... slotNames) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<Boolean> escaped = new ArrayList<>();
+        List<String> names = Arrays.asList(slotNames);
+
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+
+            boolean raw = source.startsWith("{{{", open);
+            String close = raw ? "}}}" : "}}";
+            int nameStart = open + (raw ? 3 : 2);
+            int end = source.indexOf(close, nameStart);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed slot at " + open);
+            }
+
+            String name = source.substring(nameStart, end).trim();
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown slot '" + name + "'");
+            }
+
+            literals.add(source.substring(pos, open));
+            indexes.add(index);
+            escaped.add(!raw);
+            pos = end + close.length();
+        }
+        literals.add(source.substring(pos));
+
+        return new MailTemplate(
+                literals.toArray(new String[0]),
+                indexes.stream().mapToInt(Integer::intValue).toArray(),
+                toArray(escaped),
+                slotNames.length);
+    }
+
+    public String render(Object... values) {
+        String[] texts = texts(values);
+        StringBuilder out = new StringBuilder(lengthOf(texts));
+        append(out, texts);
+        return out.toString();
+    }
+
+    public void renderInto(StringBuilder out, Object... values) {
+        String[] texts = texts(values);
+        out.ensureCapacity(out.length() + lengthOf(texts));
+        append(out, texts);
+    }
+
+    // literals plus values, with a little room for escaped characters so the builder never has to grow
+    private int lengthOf(String[] texts) {
+        int valueLength = 0;
+        for (int index : slotIndexes) {
+            valueLength += texts[index].length();
+        }
+        return literalLength + valueLength + valueLength / 8;
+    }
+
+    private String[] texts(Object[] values) {
+        if (values.length != slotCount) {
+            throw new IllegalArgumentException("Expected " + slotCount + " values, got " + values.length);
+        }
+        String[] texts = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            texts[i] = values[i] == null ? "" : values[i].toString();
+        }
+        return texts;
+    }
+
+    private void append(StringBuilder out, String[] texts) {
+        for (int i = 0; i < slotIndexes.length; i++) {
+            out.append(literals[i]);
+            String text = texts[slotIndexes[i]];
+            if (escaped[i]) {
+                escapeHtml(out, text);
+            } else {
+                out.append(text);
+            }
+        }
+        out.append(literals[literals.length - 1]);
+    }
+
+    static void escapeHtml(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static boolean[] toArray(List<Boolean> list) {
+        boolean[] array = new boolean[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
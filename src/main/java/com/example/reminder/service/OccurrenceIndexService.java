@@ -0,0 +1,178 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.Event;
+import com.example.reminder.model.EventOccurrence;
+import com.example.reminder.model.OccurrenceHorizon;
+import com.example.reminder.model.User;
+import com.example.reminder.repository.EventOccurrenceRepository;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.OccurrenceHorizonRepository;
+import com.example.reminder.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Optional materialized calendar: every date an event of a user is shown on, in event_occurrences,
+ * generated up to a rolling horizon ({@code horizon-months} ahead of today).
+ *
+ * A user is materialized on the first calendar read. EventService rebuilds the dates a write touches,
+ * a nightly job moves the horizon forward. Ranges beyond the horizon are expanded on the fly as before.
+ */
+@Slf4j
+@Service
+public class OccurrenceIndexService {
+
+    private final EventRepository eventRepo;
+    private final EventOccurrenceRepository occurrenceRepo;
+    private final OccurrenceHorizonRepository horizonRepo;
+    private final UserRepository userRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLock;
+
+    private final boolean enabled;
+    private final int horizonMonths;
+
+    public OccurrenceIndexService(EventRepository eventRepo, EventOccurrenceRepository occurrenceRepo,
+                                  OccurrenceHorizonRepository horizonRepo, UserRepository userRepo,
+                                  TransactionTemplate transactionTemplate, SchedulerLockService schedulerLock,
+                                  @Value("${app.calendar.occurrences.enabled:false}") boolean enabled,
+                                  @Value("${app.calendar.occurrences.horizon-months:24}") int horizonMonths) {
+        this.eventRepo = eventRepo;
+        this.occurrenceRepo = occurrenceRepo;
+        this.horizonRepo = horizonRepo;
+        this.userRepo = userRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.enabled = enabled;
+        this.horizonMonths = Math.max(1, horizonMonths);
+    }
+
+    /**
+     * Date and event of every occurrence in the range, empty when the range has to be expanded
+     * on the fly (index disabled or the range ends beyond the horizon).
+     */
+    public Optional<List<Object[]>> findInRange(User user, LocalDate start, LocalDate end) {
+        if (!enabled) return Optional.empty();
+
+        LocalDate until = horizonRepo.findById(user.getId())
+                .map(OccurrenceHorizon::getMaterializedUntil)
+                .orElseGet(() -> materialize(user));
+        if (until == null || end.isAfter(until)) {
+            return Optional.empty();
+        }
+        return Optional.of(occurrenceRepo.findInRange(user.getId(), start, end));
+    }
+
+    /** regenerates the user's dates from {@code from} to {@code to} (null: up to the horizon) */
+    public void rebuild(User user, LocalDate from, LocalDate to) {
+        if (!enabled || from == null) return;
+
+        Optional<OccurrenceHorizon> horizon = horizonRepo.findById(user.getId());
+        if (horizon.isEmpty()) {
+            return; // built as a whole on the next read
+        }
+        LocalDate until = horizon.get().getMaterializedUntil();
+        LocalDate last = to == null || to.isAfter(until) ? until : to;
+        if (from.isAfter(last)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> replace(user, from, last));
+    }
+
+    /** moves the horizon of every materialized user forward, on one node of the cluster */
+    @Scheduled(cron = "${app.calendar.occurrences.extend-cron:0 30 3 * * *}")
+    public void extendHorizon() {
+        if (!enabled || !schedulerLock.isLeader("occurrence-horizon")) return;
+
+        LocalDate target = horizon();
+        int extended = 0;
+        List<OccurrenceHorizon> behind;
+        while (!(behind = horizonRepo.findBehind(target, PageRequest.of(0, 100))).isEmpty()) {
+            for (OccurrenceHorizon h : behind) {
+                User user = userRepo.getReferenceById(h.getUserId());
+                LocalDate from = h.getMaterializedUntil().plusDays(1);
+                transactionTemplate.executeWithoutResult(status -> {
+                    replace(user, from, target);
+                    h.setMaterializedUntil(target);
+                    horizonRepo.save(h);
+                });
+                extended++;
+            }
+        }
+        if (extended > 0) {
+            log.info("Extended event occurrences of {} users up to {}", extended, target);
+        }
+    }
+
+    // first read of a user: everything from the first event up to the horizon
+    private LocalDate materialize(User user) {
+        LocalDate until = horizon();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDate first = eventRepo.findFirstEventDate(user);
+                if (first != null && !first.isAfter(until)) {
+                    replace(user, first, until);
+                }
+                horizonRepo.save(new OccurrenceHorizon(user.getId(), until));
+            });
+            return until;
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent read materialized the same user, this one expands on the fly
+            return null;
+        }
+    }
+
+    private void replace(User user, LocalDate from, LocalDate to) {
+        occurrenceRepo.deleteForUserBetween(user.getId(), from, to);
+        occurrenceRepo.saveAll(generate(user, from, to));
+    }
+
+    // same dates the calendar expansion shows: singles, moved occurrences, series minus their exceptions
+    private List<EventOccurrence> generate(User user, LocalDate from, LocalDate to) {
+        List<EventOccurrence> rows = new ArrayList<>();
+
+        for (Event e : eventRepo.findSinglesInRange(user, from, to)) {
+            rows.add(new EventOccurrence(user.getId(), e.getEventDate(), e.getId()));
+        }
+        for (Event e : eventRepo.findExceptionsInRange(user, from, to)) {
+            rows.add(new EventOccurrence(user.getId(), e.getEventDate(), e.getId()));
+        }
+
+        List<Event> masters = eventRepo.findRecurringMasterAffectingRange(user, from, to);
+        if (masters.isEmpty()) {
+            return rows;
+        }
+
+        Map<Long, List<LocalDate>> exceptionDates = new HashMap<>();
+        for (Object[] row : eventRepo.findExceptionDates(masters.stream().map(Event::getId).toList())) {
+            if (row[1] != null) {
+                exceptionDates.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((LocalDate) row[1]);
+            }
+        }
+
+        // the calendar's own expansion, so the index cannot drift from what is shown on the fly
+        for (Event master : masters) {
+            int interval = (master.getRecurrenceInterval() != null && master.getRecurrenceInterval() > 0)
+                    ? master.getRecurrenceInterval() : 1;
+            int[] skipped = RecurrenceMath.sortedEpochDays(exceptionDates.getOrDefault(master.getId(), List.of()));
+
+            for (int day : RecurrenceMath.occurrenceDays(master.getEventDate(), master.getRecurrenceType(), interval,
+                    master.getRecurrenceEndDate(), skipped, from, to)) {
+                rows.add(new EventOccurrence(user.getId(), LocalDate.ofEpochDay(day), master.getId()));
+            }
+        }
+        return rows;
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().plusMonths(horizonMonths);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.RecurrenceType;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Date arithmetic of recurring series that does not walk the series one occurrence at a time.
+ *
+ * The occurrences of a series are what repeatedly adding the interval to the start date gives, so a
+ * monthly series starting on the 31st drifts to the 28th after February and stays there.
+ * The methods here return exactly that sequence.
+ */
+public final class RecurrenceMath {
+
+    // from here on no month is short enough to clamp the day of month any further
+    private static final int STABLE_DAY_OF_MONTH = 28;
+
+    // days from year 0 to 1970-01-01, as in LocalDate.toEpochDay
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
+
+    private static final int[] NO_DAYS = new int[0];
+
+    private RecurrenceMath() {
+    }
+
+    /**
+     * First occurrence of the series on or after {@code target}. The start itself counts as an occurrence.
+     * DAILY/WEEKLY are one epoch-day division. MONTHLY/YEARLY step exactly while the day of month can
+     * still be clamped (at most until the first short month is hit), then jump with month arithmetic.
+     */
+    public static LocalDate firstOnOrAfter(LocalDate start, RecurrenceType type, int interval, LocalDate target) {
+        if (!start.isBefore(target) || type == null || type == RecurrenceType.NONE) {
+            return start;
+        }
+        int step = Math.max(1, interval);
+
+        return switch (type) {
+            case DAILY -> seekDays(start, step, target);
+            case WEEKLY -> seekDays(start, step * 7L, target);
+            case MONTHLY -> seekMonths(start, step, target);
+            case YEARLY -> seekMonths(start, step * 12L, target);
+            default -> start;
+        };
+    }
+
+    /**
+     * The next {@code count} occurrences on or after {@code from}, without the exception dates and not past
+     * {@code endDate} (null: no end). One seek, then one step per returned or skipped occurrence.
+     */
+    public static List<LocalDate> nextOccurrences(LocalDate start, RecurrenceType type, int interval, LocalDate endDate,
+                                                  Set<LocalDate> exceptionDates, LocalDate from, int count) {
+        List<LocalDate> dates = new ArrayList<>(count);
+        // a skipped occurrence has no date and never happens
+        if (start == null) {
+            return dates;
+        }
+        if (type == null || type == RecurrenceType.NONE) {
+            if (!start.isBefore(from) && !exceptionDates.contains(start) && count > 0) {
+                dates.add(start);
+            }
+            return dates;
+        }
+
+        int step = Math.max(1, interval);
+        LocalDate d = firstOnOrAfter(start, type, step, from);
+        while (dates.size() < count && (endDate == null || !d.isAfter(endDate))) {
+            if (!exceptionDates.contains(d)) {
+                dates.add(d);
+            }
+            d = addInterval(d, type, step);
+        }
+        return dates;
+    }
+
+    /**
+     * Epoch days of the occurrences between {@code rangeStart} and {@code rangeEnd} (inclusive), not past
+     * {@code endDate} (null: no end) and not in {@code exceptionDays} (sorted, see {@link #sortedEpochDays}).
+     * Steps on ints, a month step is a day-of-month clamp instead of a LocalDate per occurrence.
+     */
+    public static int[] occurrenceDays(LocalDate start, RecurrenceType type, int interval, LocalDate endDate,
+                                       int[] exceptionDays, LocalDate rangeStart, LocalDate rangeEnd) {
+        LocalDate last = endDate != null && endDate.isBefore(rangeEnd) ? endDate : rangeEnd;
+        LocalDate first = firstOnOrAfter(start, type, interval, rangeStart);
+        if (first.isAfter(last) || first.isBefore(rangeStart)) {
+            return NO_DAYS;
+        }
+        int step = Math.max(1, interval);
+        int lastDay = (int) last.toEpochDay();
+        if (type == null) {
+            type = RecurrenceType.NONE;
+        }
+
+        return switch (type) {
+            case DAILY -> stepDays((int) first.toEpochDay(), step, lastDay, exceptionDays);
+            case WEEKLY -> stepDays((int) first.toEpochDay(), step * 7, lastDay, exceptionDays);
+            case MONTHLY -> stepMonths(first, step, lastDay, exceptionDays);
+            case YEARLY -> stepMonths(first, step * 12, lastDay, exceptionDays);
+            default -> Arrays.binarySearch(exceptionDays, (int) first.toEpochDay()) < 0
+                    ? new int[]{(int) first.toEpochDay()} : NO_DAYS;
+        };
+    }
+
+    /** ascending epoch days of the dates, for the exception lookups of {@link #occurrenceDays} */
+    public static int[] sortedEpochDays(Collection<LocalDate> dates) {
+        int[] days = new int[dates.size()];
+        int n = 0;
+        for (LocalDate d : dates) {
+            days[n++] = (int) d.toEpochDay();
+        }
+        Arrays.sort(days);
+        return days;
+    }
+
+    /** the occurrence after {@code d} */
+    public static LocalDate addInterval(LocalDate d, RecurrenceType type, int interval) {
+        return switch (type) {
+            case DAILY -> d.plusDays(interval);
+            case WEEKLY -> d.plusWeeks(interval);
+            case MONTHLY -> d.plusMonths(interval);
+            case YEARLY -> d.plusYears(interval);
+            default -> d;
+        };
+    }
+
+    private static int[] stepDays(int firstDay, int stepDays, int lastDay, int[] exceptionDays) {
+        int[] days = new int[(lastDay - firstDay) / stepDays + 1];
+        int n = 0;
+        for (int d = firstDay; d <= lastDay; d += stepDays) {
+            if (Arrays.binarySearch(exceptionDays, d) < 0) {
+                days[n++] = d;
+            }
+        }
+        return n == days.length ? days : Arrays.copyOf(days, n);
+    }
+
+    // same sequence as chained plusMonths: the day of month is clamped to each month's length and stays clamped
+    private static int[] stepMonths(LocalDate first, int stepMonths, int lastDay, int[] exceptionDays) {
+        int year = first.getYear();
+        int month = first.getMonthValue();
+        int dayOfMonth = first.getDayOfMonth();
+
+        int[] days = new int[(lastDay - (int) first.toEpochDay()) / (stepMonths * 28) + 1];
+        int n = 0;
+        for (long d = first.toEpochDay(); d <= lastDay; d = epochDay(year, month, dayOfMonth)) {
+            if (Arrays.binarySearch(exceptionDays, (int) d) < 0) {
+                days[n++] = (int) d;
+            }
+            int months = month - 1 + stepMonths;
+            year += months / 12;
+            month = months % 12 + 1;
+            dayOfMonth = Math.min(dayOfMonth, Month.of(month).length(Year.isLeap(year)));
+        }
+        return n == days.length ? days : Arrays.copyOf(days, n);
+    }
+
+    // LocalDate.of(year, month, day).toEpochDay() without the LocalDate, for years after 0
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!Year.isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static LocalDate seekDays(LocalDate start, long stepDays, LocalDate target) {
+        long startDay = start.toEpochDay();
+        long steps = Math.ceilDiv(target.toEpochDay() - startDay, stepDays);
+        return LocalDate.ofEpochDay(startDay + steps * stepDays);
+    }
+
+    private static LocalDate seekMonths(LocalDate start, long stepMonths, LocalDate target) {
+        LocalDate cursor = start;
+        while (cursor.getDayOfMonth() > STABLE_DAY_OF_MONTH && cursor.isBefore(target)) {
+            cursor = cursor.plusMonths(stepMonths);
+        }
+        if (!cursor.isBefore(target)) {
+            return cursor;
+        }
+
+        // the last occurrence not after the target month, one more step if it is still before the target
+        long months = monthIndex(target) - monthIndex(cursor);
+        LocalDate candidate = cursor.plusMonths(months / stepMonths * stepMonths);
+        return candidate.isBefore(target) ? candidate.plusMonths(stepMonths) : candidate;
+    }
+
+    private static long monthIndex(LocalDate d) {
+        return d.getYear() * 12L + d.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.ReminderDispatchView;
+import com.example.reminder.repository.ReminderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works off the reminders that became due while the application was down.
+ *
+ * Everything due before the startup cutoff is the backlog. The regular dispatcher leaves it alone
+ * while catch-up is running, this service walks it at a throttled rate instead and classifies
+ * every reminder by lateness:
+ * <ul>
+ *     <li>the event is already over: acknowledged without a mail</li>
+ *     <li>later than the staleness cutoff: skipped or collapsed into one mail per recipient</li>
+ *     <li>otherwise: sent as usual</li>
+ * </ul>
+ * Progress is reported on the admin endpoint.
+ */
+@Slf4j
+@Service
+public class ReminderCatchUpService {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED,
+        DISABLED
+    }
+
+    public enum StalePolicy {
+        SKIP,
+        COLLAPSE
+    }
+
+    enum Lateness {
+        SEND,
+        COLLAPSE,
+        SKIP
+    }
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ReminderRepository repo;
+    private final EventService eventService;
+    private final ReminderOutboxRelay outboxRelay;
+    private final NodeIdentity nodeIdentity;
+
+    private final boolean enabled;
+    private final long staleAfterHours;
+    private final StalePolicy stalePolicy;
+    private final int batchSize;
+    private final int ratePerMinute;
+    private final long claimLeaseSeconds;
+
+    // reminders due up to here belong to the backlog
+    private final LocalDateTime cutoff;
+
+    private volatile State state;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    private Thread worker;
+
+    public ReminderCatchUpService(ReminderRepository repo, @Lazy EventService eventService,
+                                  ReminderOutboxRelay outboxRelay, NodeIdentity nodeIdentity,
+                                  @Value("${app.reminder.catch-up.enabled:true}") boolean enabled,
+                                  @Value("${app.reminder.catch-up.grace-minutes:5}") long graceMinutes,
+                                  @Value("${app.reminder.catch-up.stale-after-hours:24}") long staleAfterHours,
+                                  @Value("${app.reminder.catch-up.stale-policy:COLLAPSE}") StalePolicy stalePolicy,
+                                  @Value("${app.reminder.catch-up.batch-size:50}") int batchSize,
+                                  @Value("${app.reminder.catch-up.rate-per-minute:600}") int ratePerMinute,
+                                  @Value("${app.reminder.claim-lease-seconds:300}") long claimLeaseSeconds) {
+        this.repo = repo;
+        this.eventService = eventService;
+        this.outboxRelay = outboxRelay;
+        this.nodeIdentity = nodeIdentity;
+        this.enabled = enabled;
+        this.staleAfterHours = staleAfterHours;
+        this.stalePolicy = stalePolicy;
+        this.batchSize = Math.max(1, batchSize);
+        this.ratePerMinute = Math.max(1, ratePerMinute);
+        this.claimLeaseSeconds = claimLeaseSeconds;
+
+        // reminders that were due just a few minutes ago are still handled by the regular dispatcher
+        this.cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        this.state = enabled ? State.PENDING : State.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        worker = new Thread(this::run, "reminder-catch-up");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /** shutdown: stops after the chunk in progress, the rest of the backlog stays pending */
+    public boolean stopAndAwait(Duration timeout) throws InterruptedException {
+        if (worker == null) return true;
+        stop();
+        worker.join(Math.max(1, timeout.toMillis()));
+        return !worker.isAlive();
+    }
+
+    /** true while the backlog before the cutoff is still owned by catch-up */
+    public boolean isActive() {
+        return state == State.PENDING || state == State.RUNNING;
+    }
+
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    // own claim token, so chunks of the regular dispatcher on this node are never read here
+    public String claimOwner() {
+        return nodeIdentity.getId() + "#catch-up";
+    }
+
+    public Map<String, Object> progress() {
+        long processed = sent.get() + collapsed.get() + skipped.get();
+        long total = backlog.get();
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("cutoff", cutoff);
+        progress.put("stalePolicy", stalePolicy);
+        progress.put("backlog", total);
+        progress.put("processed", processed);
+        progress.put("sent", sent.get());
+        progress.put("collapsed", collapsed.get());
+        progress.put("skipped", skipped.get());
+        progress.put("percent", total == 0 ? 100 : Math.min(100, processed * 100 / total));
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        return progress;
+    }
+
+    void run() {
+        try {
+            backlog.set(repo.countOverdueReminders(cutoff));
+            startedAt = LocalDateTime.now();
+
+            if (backlog.get() == 0) {
+                finish(State.DONE);
+                return;
+            }
+
+            state = State.RUNNING;
+            log.info("Reminder catch-up started, {} reminders were due before {}", backlog.get(), cutoff);
+            drain();
+            finish(State.DONE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // hand the rest back to the regular dispatcher rather than leaving it unsent
+            log.error("Reminder catch-up failed, remaining backlog goes to the regular dispatcher", e);
+            finish(State.FAILED);
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        String owner = claimOwner();
+        long chunkIntervalMs = batchSize * 60_000L / ratePerMinute;
+
+        LocalDateTime afterTime = KEYSET_START;
+        Long afterId = 0L;
+
+        while (true) {
+            long started = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+
+            repo.claimPendingReminders(owner, now, cutoff, now.plusSeconds(claimLeaseSeconds),
+                    afterTime, afterId, batchSize);
+            List<ReminderDispatchView> chunk = repo.findClaimedReminders(owner, now, afterTime, afterId,
+                    PageRequest.of(0, batchSize));
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            List<ReminderDispatchView> toSend = new ArrayList<>();
+            List<ReminderDispatchView> toCollapse = new ArrayList<>();
+            List<ReminderDispatchView> toSkip = new ArrayList<>();
+            for (ReminderDispatchView v : chunk) {
+                switch (classify(v, now)) {
+                    case SEND -> toSend.add(v);
+                    case COLLAPSE -> toCollapse.add(v);
+                    case SKIP -> toSkip.add(v);
+                }
+            }
+
+            eventService.dispatchCatchUp(owner, now, toSend, toCollapse, toSkip);
+            outboxRelay.trigger();
+
+            sent.addAndGet(toSend.size());
+            collapsed.addAndGet(toCollapse.size());
+            skipped.addAndGet(toSkip.size());
+
+            ReminderDispatchView last = chunk.get(chunk.size() - 1);
+            afterTime = last.getReminderTime();
+            afterId = last.getReminderId();
+
+            long pause = chunkIntervalMs - (System.currentTimeMillis() - started);
+            if (pause > 0) {
+                Thread.sleep(pause);
+            }
+        }
+    }
+
+    Lateness classify(ReminderDispatchView v, LocalDateTime now) {
+        if (v.getEventDate() != null && v.getEventDate().isBefore(LocalDate.from(now))) {
+            return Lateness.SKIP;
+        }
+        if (v.getReminderTime().isBefore(now.minusHours(staleAfterHours))) {
+            return stalePolicy == StalePolicy.COLLAPSE ? Lateness.COLLAPSE : Lateness.SKIP;
+        }
+        return Lateness.SEND;
+    }
+
+    private void finish(State result) {
+        finishedAt = LocalDateTime.now();
+        state = result;
+        log.info("Reminder catch-up {}: {} sent, {} collapsed, {} skipped of {}",
+                result, sent.get(), collapsed.get(), skipped.get(), backlog.get());
+    }
+}
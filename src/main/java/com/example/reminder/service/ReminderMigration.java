@@ -0,0 +1,103 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies the single reminderTime of events created before the reminders table existed into one
+ * reminder row each. Runs once the application is ready, before the scheduler loads its window,
+ * and does nothing once every event has its rows.
+ *
+ * Only the node holding the migration lock copies rows, so replicas starting together never insert
+ * the same reminders twice. A node that does not get the lock leaves the rows to that node, its
+ * scheduler picks them up with the next reconciliation.
+ */
+@Slf4j
+@Component
+public class ReminderMigration {
+
+    static final String MIGRATION_LOCK = "reminder-migration";
+
+    private static final int PAGE_SIZE = 500;
+
+    private final EventRepository eventRepo;
+    private final ReminderRepository reminderRepo;
+    private final EventService eventService;
+    private final SchedulerLockService schedulerLock;
+    private final boolean enabled;
+
+    public ReminderMigration(EventRepository eventRepo, ReminderRepository reminderRepo, EventService eventService,
+                             SchedulerLockService schedulerLock,
+                             @Value("${app.reminder.migration.enabled:true}") boolean enabled) {
+        this.eventRepo = eventRepo;
+        this.reminderRepo = reminderRepo;
+        this.eventService = eventService;
+        this.schedulerLock = schedulerLock;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateOnStartup() {
+        if (!enabled) return;
+        if (!schedulerLock.isLeader(MIGRATION_LOCK)) {
+            log.info("Reminder migration runs on another node");
+            return;
+        }
+        try {
+            migrate();
+        } finally {
+            schedulerLock.release(MIGRATION_LOCK);
+        }
+    }
+
+    void migrate() {
+        long migrated = 0;
+
+        // migrated events drop out of the query, so the first page is always the next one
+        List<Event> page;
+        while (!(page = eventRepo.findWithoutReminderRows(PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            List<Reminder> reminders = new ArrayList<>();
+            for (Event e : page) {
+                reminders.add(toReminder(e));
+            }
+            reminderRepo.saveAll(reminders);
+            migrated += reminders.size();
+        }
+
+        if (migrated > 0) {
+            log.info("Migrated the reminderTime of {} events into the reminders table", migrated);
+        }
+    }
+
+    private Reminder toReminder(Event e) {
+        Reminder r = new Reminder(e.getId(), EventService.minutesBefore(e.getReminderTime(), e.getEventDate()));
+
+        boolean recurring = e.getRecurrenceType() != null && e.getRecurrenceType() != RecurrenceType.NONE;
+        if (recurring && !e.isReminderSent()) {
+            eventService.positionReminders(e, List.of(r));
+            return r;
+        }
+
+        // single event (or finished series): keep exactly what was stored
+        r.setOccurrenceDate(e.getEventDate());
+        r.setFireAt(e.getReminderTime());
+        r.setSent(e.isReminderSent());
+        r.setSentTime(e.getReminderSentTime());
+        return r;
+    }
+}
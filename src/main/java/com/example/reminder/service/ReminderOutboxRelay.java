@@ -0,0 +1,387 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.OutgoingEmail;
+import com.example.reminder.model.ReminderDeadLetter;
+import com.example.reminder.model.ReminderOutbox;
+import com.example.reminder.repository.ReminderDeadLetterRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the reminder outbox in three stages that hand batches to each other through bounded queues:
+ * <ol>
+ *     <li>claim: leases a batch with one short statement and reads it (relay thread)</li>
+ *     <li>send: hands the batch to EmailService, no database connection is held (sender thread)</li>
+ *     <li>acknowledge: deletes what was delivered and reschedules failures, several batches per transaction (ack thread)</li>
+ * </ol>
+ * A full queue blocks the stage in front of it, so at most {@code pipeline-depth} claimed batches
+ * wait on a slow SMTP server. A crash between send and acknowledge sends the mail again (at-least-once).
+ * Failed mails are retried with exponential backoff and end up in reminder_dead_letters.
+ * On shutdown claiming stops, batches already with SMTP get until the drain deadline to be
+ * acknowledged and batches still queued are handed back to the outbox.
+ */
+@Slf4j
+@Component
+public class ReminderOutboxRelay {
+
+    private record ClaimedBatch(List<ReminderOutbox> rows) {}
+
+    private record SentBatch(List<ReminderOutbox> rows, Set<Long> sentIds, Map<Long, String> errors, boolean skipped) {}
+
+    private final ReminderOutboxRepository outboxRepo;
+    private final ReminderDeadLetterRepository deadLetterRepo;
+    private final EmailService emailService;
+    private final NodeIdentity nodeIdentity;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLock;
+
+    // all claims of this node run one after another on this thread
+    private final ExecutorService drainThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "reminder-outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean drainPending = new AtomicBoolean(false);
+
+    // every claimed batch gets its own lease token, so rows still queued are never read twice
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    // set by the send stage when SMTP could not be reached for a whole batch, stops claiming until the next drain
+    private volatile boolean smtpStalled = false;
+
+    // claimed batches not acknowledged yet, cleared to stop claiming on shutdown
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean accepting = true;
+
+    private BlockingQueue<ClaimedBatch> sendQueue;
+    private BlockingQueue<SentBatch> ackQueue;
+    private volatile boolean running = false;
+    private Thread sender;
+    private Thread acknowledger;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.pipeline-depth:2}")
+    private int pipelineDepth;
+
+    @Value("${app.outbox.claim-lease-seconds:300}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${app.outbox.retry-max-seconds:21600}")
+    private long retryMaxSeconds;
+
+    public ReminderOutboxRelay(ReminderOutboxRepository outboxRepo, ReminderDeadLetterRepository deadLetterRepo,
+                               EmailService emailService, NodeIdentity nodeIdentity,
+                               TransactionTemplate transactionTemplate, SchedulerLockService schedulerLock) {
+        this.outboxRepo = outboxRepo;
+        this.deadLetterRepo = deadLetterRepo;
+        this.emailService = emailService;
+        this.nodeIdentity = nodeIdentity;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+    }
+
+    @PostConstruct
+    public void start() {
+        sendQueue = new ArrayBlockingQueue<>(Math.max(1, pipelineDepth));
+        ackQueue = new ArrayBlockingQueue<>(Math.max(1, pipelineDepth));
+        running = true;
+
+        sender = new Thread(this::sendLoop, "reminder-outbox-sender");
+        sender.setDaemon(true);
+        sender.start();
+
+        acknowledger = new Thread(this::ackLoop, "reminder-outbox-ack");
+        acknowledger.setDaemon(true);
+        acknowledger.start();
+    }
+
+    /** ask for a drain soon, calls while one is already pending are coalesced */
+    public void trigger() {
+        if (accepting && drainPending.compareAndSet(false, true)) {
+            try {
+                drainThread.submit(() -> {
+                    drainPending.set(false);
+                    try {
+                        drain();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        log.error("Reminder outbox relay failed", e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down, the outbox keeps the mails for the next node
+                drainPending.set(false);
+            }
+        }
+    }
+
+    // retries and mails left behind by other nodes are picked up by one node only,
+    // fresh mails are relayed right away by the node that enqueued them
+    @Scheduled(fixedDelayString = "${app.outbox.relay-ms:5000}")
+    public void scheduledRelay() {
+        if (schedulerLock.isLeader("outbox-relay-sweep")) {
+            trigger();
+        }
+    }
+
+    /**
+     * Stops claiming and waits up to the timeout for the batches in flight to be sent and acknowledged.
+     * Batches that never reached SMTP are released right away instead of waiting for their lease.
+     * Returns the number of batches still in flight at the deadline.
+     */
+    public int drainForShutdown(Duration timeout) throws InterruptedException {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+
+        // a claim stage blocked on the full pipeline hands its batch back
+        drainThread.shutdownNow();
+        drainThread.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        List<ClaimedBatch> queued = new ArrayList<>();
+        sendQueue.drainTo(queued);
+        if (!queued.isEmpty()) {
+            inFlight.addAndGet(-queued.size());
+            release(queued.stream().flatMap(b -> b.rows().stream()).toList());
+        }
+        return inFlight.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        drainThread.shutdownNow();
+        if (sender != null) sender.interrupt();
+        if (acknowledger != null) acknowledger.interrupt();
+    }
+
+    // stage 1: claim batches until the outbox is empty or SMTP stopped accepting mails
+    void drain() throws InterruptedException {
+        String owner = nodeIdentity.getId();
+        smtpStalled = false;
+
+        while (running && accepting && !smtpStalled) {
+            LocalDateTime now = LocalDateTime.now();
+            String token = owner + "#" + claimSequence.incrementAndGet();
+            outboxRepo.claimBatch(token, now, now.plusSeconds(claimLeaseSeconds), batchSize);
+
+            List<ReminderOutbox> batch = outboxRepo.findClaimed(token, now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            inFlight.incrementAndGet();
+            try {
+                sendQueue.put(new ClaimedBatch(batch));
+            } catch (InterruptedException e) {
+                // shutting down while the pipeline is full
+                inFlight.decrementAndGet();
+                release(batch);
+                throw e;
+            }
+        }
+    }
+
+    // stage 2: talk SMTP, nothing here touches the database
+    private void sendLoop() {
+        while (running) {
+            ClaimedBatch claimed;
+            try {
+                claimed = sendQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                ackQueue.put(send(claimed.rows()));
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // the lease runs out and the batch is claimed again
+                inFlight.decrementAndGet();
+                log.error("Sending {} reminder mails from outbox failed", claimed.rows().size(), e);
+            }
+        }
+    }
+
+    private SentBatch send(List<ReminderOutbox> rows) {
+        if (smtpStalled) {
+            // no point in failing every queued batch, hand the rows back without counting an attempt
+            return new SentBatch(rows, Set.of(), Map.of(), true);
+        }
+
+        List<OutgoingEmail> mails = rows.stream()
+                .map(o -> new OutgoingEmail(o.getId(), o.getRecipient(), o.getSubject(), o.getHtmlBody()))
+                .toList();
+
+        Set<Long> sentIds = new HashSet<>();
+        emailService.sendHtmlBatch(mails).forEach(m -> sentIds.add(m.getReferenceId()));
+
+        Map<Long, String> errors = new HashMap<>();
+        mails.forEach(m -> errors.put(m.getReferenceId(), m.getError()));
+
+        // rejected recipients are the mails' problem, only a server that cannot be reached stalls the relay
+        if (sentIds.isEmpty() && mails.stream().anyMatch(OutgoingEmail::isTransportFailure)) {
+            smtpStalled = true;
+        }
+        return new SentBatch(rows, sentIds, errors, false);
+    }
+
+    // stage 3: acknowledge whatever is waiting in one transaction
+    private void ackLoop() {
+        while (running) {
+            List<SentBatch> results = new ArrayList<>();
+            try {
+                results.add(ackQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            ackQueue.drainTo(results);
+
+            try {
+                acknowledge(results);
+            } catch (Exception e) {
+                // unacknowledged rows are claimed again once their lease runs out
+                log.error("Acknowledging {} outbox batches failed", results.size(), e);
+            } finally {
+                inFlight.addAndGet(-results.size());
+            }
+        }
+    }
+
+    private void acknowledge(List<SentBatch> results) {
+        List<Long> sentIds = new ArrayList<>();
+        List<ReminderOutbox> failed = new ArrayList<>();
+        List<ReminderOutbox> released = new ArrayList<>();
+        Map<Long, String> errors = new HashMap<>();
+
+        for (SentBatch result : results) {
+            sentIds.addAll(result.sentIds());
+            errors.putAll(result.errors());
+            for (ReminderOutbox o : result.rows()) {
+                if (result.skipped()) {
+                    released.add(o);
+                } else if (!result.sentIds().contains(o.getId())) {
+                    failed.add(o);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepo.deleteAllByIdInBatch(sentIds);
+            }
+            if (!failed.isEmpty()) {
+                handleFailures(failed, errors, now);
+            }
+            if (!released.isEmpty()) {
+                clearClaims(released);
+            }
+        });
+
+        if (!sentIds.isEmpty()) {
+            log.info("Relayed {} reminder mails from outbox on node {}", sentIds.size(), nodeIdentity.getId());
+        }
+    }
+
+    // hand claimed rows back to the outbox without counting an attempt
+    private void release(List<ReminderOutbox> rows) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> clearClaims(rows));
+        } catch (Exception e) {
+            log.warn("Releasing {} claimed outbox mails failed, their lease runs out instead", rows.size(), e);
+        }
+    }
+
+    private void clearClaims(List<ReminderOutbox> rows) {
+        rows.forEach(o -> {
+            o.setClaimOwner(null);
+            o.setClaimExpiry(null);
+        });
+        outboxRepo.saveAll(rows);
+    }
+
+    /*
+     * Failed mails get another attempt after an exponential backoff with jitter, so a bad address
+     * does not burn SMTP capacity on every run. After maxAttempts they move to the dead-letter table.
+     */
+    private void handleFailures(List<ReminderOutbox> failed, Map<Long, String> errors, LocalDateTime now) {
+        List<ReminderOutbox> retry = new ArrayList<>();
+        List<ReminderOutbox> exhausted = new ArrayList<>();
+
+        for (ReminderOutbox o : failed) {
+            o.setAttempts(o.getAttempts() + 1);
+            o.setLastError(truncate(errors.get(o.getId())));
+            o.setClaimOwner(null);
+            o.setClaimExpiry(null);
+
+            if (o.getAttempts() >= maxAttempts) {
+                exhausted.add(o);
+            } else {
+                o.setNextAttemptAt(now.plus(backoff(o.getAttempts())));
+                retry.add(o);
+            }
+        }
+
+        outboxRepo.saveAll(retry);
+        if (!exhausted.isEmpty()) {
+            List<Long> ids = exhausted.stream().map(ReminderOutbox::getId).toList();
+            // digest items go with the dead letter, they are deleted with the outbox rows
+            Map<Long, List<String>> itemKeys = new HashMap<>();
+            for (Object[] row : outboxRepo.findItemKeys(ids)) {
+                itemKeys.computeIfAbsent(((Number) row[0]).longValue(), k -> new ArrayList<>()).add((String) row[1]);
+            }
+            deadLetterRepo.saveAll(exhausted.stream()
+                    .map(o -> ReminderDeadLetter.fromOutbox(o, itemKeys.getOrDefault(o.getId(), List.of())))
+                    .toList());
+            outboxRepo.deleteAllByIdInBatch(ids);
+            log.warn("Moved {} reminder mails to dead letters after {} attempts", exhausted.size(), maxAttempts);
+        }
+    }
+
+    // base * 2^(attempt-1), capped, with "equal jitter" (half fixed, half random)
+    Duration backoff(int attempt) {
+        long exp = Math.min(retryBaseSeconds << Math.min(attempt - 1, 30), retryMaxSeconds);
+        long half = Math.max(1, exp / 2);
+        return Duration.ofSeconds(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return "unknown error";
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
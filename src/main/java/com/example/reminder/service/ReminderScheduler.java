@@ -0,0 +1,251 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.Reminder;
+import com.example.reminder.repository.ReminderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory, time-ordered heap of the reminders due within the next hours.
+ * A single worker thread sleeps until the earliest reminder is due and then triggers the
+ * dispatcher, so reminders fire on time without polling the events table every minute.
+ * EventService keeps the heap current on every write, a slow reconciliation sweep reloads
+ * the window from the reminders table on every node. Dispatching everything overdue
+ * (other nodes, failed sends, ...) is left to the node holding the sweep lock, which looks for
+ * it every minute: a reminder claimed by a node that died is sent at most a lease plus a
+ * sweep interval late, not only after the next reconciliation.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+
+    static final String SWEEP_LOCK = "reminder-sweep";
+
+    private record Entry(Long reminderId, LocalDateTime fireAt) {}
+
+    private final ReminderRepository repo;
+    private final EventService eventService;
+    private final SchedulerLockService schedulerLock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // heap may hold stale entries, "scheduled" is the truth (lazy deletion)
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(
+            Comparator.comparing(Entry::fireAt).thenComparing(Entry::reminderId));
+    private final Map<Long, LocalDateTime> scheduled = new HashMap<>();
+
+    private boolean dispatchRequested = false;
+    private volatile boolean running = false;
+    private Thread worker;
+
+    @Value("${app.reminder.preload-hours:6}")
+    private long preloadHours;
+
+    public ReminderScheduler(ReminderRepository repo, @Lazy EventService eventService,
+                             SchedulerLockService schedulerLock) {
+        this.repo = repo;
+        this.eventService = eventService;
+        this.schedulerLock = schedulerLock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "reminder-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+        reconcile();
+    }
+
+    /** shutdown: no new dispatch runs, a run in progress finishes its current chunk */
+    public void stopDispatching() {
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean awaitTermination(Duration timeout) throws InterruptedException {
+        if (worker == null) return true;
+        worker.join(Math.max(1, timeout.toMillis()));
+        return !worker.isAlive();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /** (re)schedule a reminder after it was created, changed or moved on to the next occurrence */
+    public void schedule(Reminder r) {
+        if (r == null || r.getId() == null) return;
+
+        if (r.getFireAt() == null || r.isSent()) {
+            cancel(r.getId());
+            return;
+        }
+
+        LocalDateTime fireAt = r.getFireAt();
+        if (fireAt.isAfter(horizon())) {
+            // outside of the loaded window, the reconciliation sweep picks it up later
+            cancel(r.getId());
+            return;
+        }
+
+        lock.lock();
+        try {
+            scheduled.put(r.getId(), fireAt);
+            heap.add(new Entry(r.getId(), fireAt));
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(Long reminderId) {
+        lock.lock();
+        try {
+            scheduled.remove(reminderId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** reload the next hours from the database and dispatch whatever is overdue */
+    @Scheduled(initialDelayString = "${app.reminder.reconcile-ms:900000}",
+               fixedDelayString = "${app.reminder.reconcile-ms:900000}")
+    public void reconcile() {
+        if (!running) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = repo.findReminderSchedule(now, horizon());
+        boolean sweep = schedulerLock.isLeader(SWEEP_LOCK);
+
+        lock.lock();
+        try {
+            scheduled.clear();
+            heap.clear();
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                LocalDateTime fireAt = (LocalDateTime) row[1];
+                scheduled.put(id, fireAt);
+                heap.add(new Entry(id, fireAt));
+            }
+            // the full sweep over everything overdue runs on one node of the cluster
+            if (sweep) {
+                dispatchRequested = true;
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Reminder scheduler reconciled, {} reminders due in the next {} hours", rows.size(), preloadHours);
+    }
+
+    /** the sweep lock holder dispatches overdue reminders, e.g. whose lease of another node ran out */
+    @Scheduled(initialDelayString = "${app.reminder.sweep-ms:60000}",
+               fixedDelayString = "${app.reminder.sweep-ms:60000}")
+    public void sweepOverdue() {
+        if (!running || !schedulerLock.isLeader(SWEEP_LOCK)) return;
+
+        lock.lock();
+        try {
+            dispatchRequested = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return scheduled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LocalDateTime horizon() {
+        return LocalDateTime.now().plusHours(preloadHours);
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                if (awaitDueReminders()) {
+                    // all dispatching of this node happens on this thread
+                    eventService.checkReminders();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Reminder dispatch failed", e);
+            }
+        }
+    }
+
+    // blocks until at least one reminder is due (or a dispatch was requested)
+    private boolean awaitDueReminders() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (!running) {
+                    return false;
+                }
+                if (dispatchRequested) {
+                    dispatchRequested = false;
+                    return true;
+                }
+
+                Entry head = heap.peek();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+
+                if (!head.fireAt().equals(scheduled.get(head.reminderId()))) {
+                    heap.poll(); // cancelled or rescheduled
+                    continue;
+                }
+
+                long waitMs = Duration.between(LocalDateTime.now(), head.fireAt()).toMillis();
+                if (waitMs > 0) {
+                    changed.await(waitMs, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+
+                // drain everything that is due, one dispatch run handles them all
+                LocalDateTime now = LocalDateTime.now();
+                while (!heap.isEmpty() && !heap.peek().fireAt().isAfter(now)) {
+                    Entry due = heap.poll();
+                    scheduled.remove(due.reminderId(), due.fireAt());
+                }
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
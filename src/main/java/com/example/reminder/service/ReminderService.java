@@ -1,8 +1,10 @@
 package com.example.reminder.service;
 
+import com.example.reminder.dto.ReminderResponse;
 import com.example.reminder.model.Event;
+import com.example.reminder.model.Reminder;
 import com.example.reminder.model.User;
-import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderRepository;
 import com.example.reminder.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,13 +15,16 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class ReminderService {
-    private final EventRepository repo;
-    public List<Event> getAllReminders(User user, LocalDateTime now, LocalDateTime threshold ,
-                                       boolean sent) {
+    private final ReminderRepository repo;
+    public List<ReminderResponse> getAllReminders(User user, LocalDateTime now, LocalDateTime threshold ,
+                                                  boolean sent) {
 
-        if (!sent) return repo.findAllUpcomingReminders(user, now, threshold);
-
-        return repo.findAllSentReminders(user, now, threshold);
+        List<Object[]> rows = !sent
+                ? repo.findUpcomingForUser(user, now, threshold)
+                : repo.findSentForUser(user, threshold, now);
 
+        return rows.stream()
+                .map(row -> ReminderResponse.fromReminder((Reminder) row[0], (Event) row[1]))
+                .toList();
     }
 }
@@ -0,0 +1,99 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.repository.ReminderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shutdown phase of the reminder pipeline, runs on context close before any bean is destroyed:
+ * <ol>
+ *     <li>stop claiming: no new dispatch or catch-up chunk, no new outbox batch</li>
+ *     <li>wait up to the drain deadline for the chunk and the mails in flight</li>
+ *     <li>hand back what is left: queued outbox batches and the reminder claims of every worker that
+ *     actually stopped become pending again, claims of a worker still running are left to expire</li>
+ * </ol>
+ * Reminders are written to the outbox together with their acknowledgement, so nothing claimed is lost,
+ * and releasing instead of waiting for the lease lets the next node send them right away during a rolling deploy.
+ */
+@Slf4j
+@Component
+public class ReminderShutdownDrain {
+
+    private final EventService eventService;
+    private final ReminderScheduler reminderScheduler;
+    private final ReminderCatchUpService catchUp;
+    private final ReminderOutboxRelay outboxRelay;
+    private final ReminderRepository reminderRepo;
+    private final NodeIdentity nodeIdentity;
+    private final long drainSeconds;
+
+    public ReminderShutdownDrain(EventService eventService, ReminderScheduler reminderScheduler,
+                                 ReminderCatchUpService catchUp, ReminderOutboxRelay outboxRelay,
+                                 ReminderRepository reminderRepo, NodeIdentity nodeIdentity,
+                                 @Value("${app.shutdown.drain-seconds:20}") long drainSeconds) {
+        this.eventService = eventService;
+        this.reminderScheduler = reminderScheduler;
+        this.catchUp = catchUp;
+        this.outboxRelay = outboxRelay;
+        this.reminderRepo = reminderRepo;
+        this.nodeIdentity = nodeIdentity;
+        this.drainSeconds = drainSeconds;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void drain() {
+        long deadline = System.currentTimeMillis() + drainSeconds * 1000;
+        log.info("Draining reminder pipeline, up to {} seconds", drainSeconds);
+
+        eventService.stopDispatching();
+        reminderScheduler.stopDispatching();
+
+        boolean dispatchDone = false;
+        boolean catchUpDone = false;
+        try {
+            dispatchDone = reminderScheduler.awaitTermination(remaining(deadline));
+            catchUpDone = catchUp.stopAndAwait(remaining(deadline));
+            int inFlight = outboxRelay.drainForShutdown(remaining(deadline));
+
+            if (!dispatchDone || !catchUpDone || inFlight > 0) {
+                log.warn("Reminder drain deadline reached: dispatch done={}, catch-up done={}, {} outbox batches still with SMTP",
+                        dispatchDone, catchUpDone, inFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // a chunk still being worked on keeps its claims until their lease runs out, handing them
+        // over now would let another node mail them while this one still does
+        List<String> stopped = new ArrayList<>();
+        if (dispatchDone) {
+            stopped.add(nodeIdentity.getId());
+        }
+        if (catchUpDone) {
+            stopped.add(catchUp.claimOwner());
+        }
+        if (stopped.isEmpty()) {
+            log.info("Reminder claims of this node are left to expire");
+            return;
+        }
+
+        try {
+            int released = reminderRepo.releaseClaims(stopped);
+            log.info("Reminder pipeline drained, {} claimed reminders of {} handed back", released, stopped);
+        } catch (Exception e) {
+            log.warn("Releasing reminder claims failed, they are picked up once their lease runs out", e);
+        }
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofMillis(Math.max(1, deadline - System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.repository.SchedulerLockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leader election for scheduled jobs through the scheduler_locks table.
+ *
+ * A scheduled method opts in by returning early unless {@link #isLeader(String)} is true for its lock
+ * name, so the job runs on exactly one node of the cluster. The leader holds a lease and renews it with
+ * a heartbeat; when it dies the lease expires and the next node asking for the lock becomes leader.
+ * On shutdown the locks are released, so a redeploy fails over without waiting for the lease.
+ *
+ * Lease expiry in the table is decided by the database clock. The local copy of a lease starts before
+ * the statement that took it, so it always runs out before the lease the other nodes see.
+ */
+@Slf4j
+@Service
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository repo;
+    private final String owner;
+    private final boolean enabled;
+    private final long leaseMs;
+
+    // locks held by this node and how long the lease is known to last, by the local clock
+    private final Map<String, LocalDateTime> held = new ConcurrentHashMap<>();
+
+    public SchedulerLockService(SchedulerLockRepository repo, NodeIdentity nodeIdentity,
+                                @Value("${app.scheduler-lock.enabled:true}") boolean enabled,
+                                @Value("${app.scheduler-lock.lease-ms:30000}") long leaseMs) {
+        this.repo = repo;
+        this.owner = nodeIdentity.getId();
+        this.enabled = enabled;
+        this.leaseMs = leaseMs;
+    }
+
+    /** true when this node may run the job guarded by the given lock right now */
+    public boolean isLeader(String lockName) {
+        if (!enabled) return true;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = held.get(lockName);
+        if (until != null && until.isAfter(now)) {
+            return true;
+        }
+        return acquire(lockName, now);
+    }
+
+    /** keeps the leases of all held locks alive, a lock that was taken over is dropped */
+    @Scheduled(fixedDelayString = "${app.scheduler-lock.heartbeat-ms:10000}")
+    public void heartbeat() {
+        for (String lockName : held.keySet()) {
+            LocalDateTime until = LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+            try {
+                if (repo.renew(lockName, owner, leaseMs) == 1) {
+                    held.put(lockName, until);
+                } else {
+                    held.remove(lockName);
+                    log.warn("Lost scheduler lock {} to another node", lockName);
+                }
+            } catch (DataAccessException e) {
+                // keep the local lease, it runs out on its own if the database stays away
+                log.warn("Heartbeat of scheduler lock {} failed", lockName, e);
+            }
+        }
+    }
+
+    public Set<String> heldLocks() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> names = new TreeSet<>();
+        held.forEach((name, until) -> {
+            if (until.isAfter(now)) names.add(name);
+        });
+        return names;
+    }
+
+    /** gives up one lock after a one-off job, the next node asking takes it right away */
+    public void release(String lockName) {
+        if (held.remove(lockName) == null) return;
+        try {
+            repo.release(lockName, owner);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release scheduler lock {}", lockName, e);
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        for (String lockName : held.keySet()) {
+            release(lockName);
+        }
+    }
+
+    private boolean acquire(String lockName, LocalDateTime now) {
+        LocalDateTime until = now.plusNanos(leaseMs * 1_000_000);
+        boolean acquired;
+        try {
+            acquired = repo.tryAcquire(lockName, owner, leaseMs) == 1
+                    || repo.insertIfAbsent(lockName, owner, leaseMs) == 1;
+        } catch (DataAccessException e) {
+            log.warn("Failed to acquire scheduler lock {}", lockName, e);
+            acquired = false;
+        }
+
+        if (acquired) {
+            if (held.put(lockName, until) == null) {
+                log.info("Node {} is now leader for {}", owner, lockName);
+            }
+        } else {
+            held.remove(lockName);
+        }
+        return acquired;
+    }
+}
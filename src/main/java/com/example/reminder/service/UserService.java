@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Service
@@ -118,12 +119,16 @@ public class UserService {
 
         try {
             String html = emailService.buildVerificationEmailHtml(link,newEmail);
-            emailService.sendReminderHtml(
+            emailService.sendTransactionalHtml(
                     newEmail,
                     "Reminder App: Verify your New Email." ,
                     html
             );
 
+        } catch (RejectedExecutionException ex) {
+            // mail queue full: nothing is stored, the user retries instead of waiting for a mail that never comes
+            log.warn("Mail queue full, email change of {} not started", user.getEmail());
+            throw ex;
         } catch (Exception ex) {
             log.error("Failed to send Email for changed Email {}", newEmail, ex);
         }
@@ -168,12 +173,16 @@ public class UserService {
 
         try {
 
-            emailService.sendReminderHtml(
+            emailService.sendTransactionalHtml(
                     user.getEmail(),
                     "Reminder App: Reset your Password." ,
                     html
             );
 
+        } catch (RejectedExecutionException ex) {
+            // mail queue full: the token is not stored, the user retries
+            log.warn("Mail queue full, password reset of {} not started", user.getEmail());
+            throw ex;
         } catch (Exception ex) {
             log.error("Failed to send Email for reset password for user {}", user.getEmail(), ex);
         }
@@ -0,0 +1,69 @@
+package com.example.reminder.repository;
+
+import com.example.reminder.model.SchedulerLock;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * The lease queries are MySQL specific, so they run against a real database: mvn test -Pmysql-it
+ * with spring.datasource.* pointing at a scratch schema. Every test uses its own lock name and
+ * is rolled back.
+ */
+@Tag("mysql")
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchedulerLockRepositoryTest {
+
+    private static final long LEASE_MS = 30_000;
+
+    @Autowired
+    SchedulerLockRepository repo;
+    @Autowired
+    EntityManager em;
+
+    private final String name = "test-" + UUID.randomUUID();
+
+    @Test
+    void onlyOneNodeHoldsAnUnexpiredLease() {
+        assertThat(repo.tryAcquire(name, "node-a", LEASE_MS)).isZero();
+        assertThat(repo.insertIfAbsent(name, "node-a", LEASE_MS)).isEqualTo(1);
+        assertThat(repo.insertIfAbsent(name, "node-b", LEASE_MS)).isZero();
+
+        assertThat(repo.tryAcquire(name, "node-b", LEASE_MS)).isZero();
+        assertThat(repo.renew(name, "node-b", LEASE_MS)).isZero();
+        assertThat(repo.tryAcquire(name, "node-a", LEASE_MS)).isEqualTo(1);
+        assertThat(repo.renew(name, "node-a", LEASE_MS)).isEqualTo(1);
+    }
+
+    @Test
+    void leaseIsTakenFromTheDatabaseClock() {
+        repo.insertIfAbsent(name, "node-a", LEASE_MS);
+        em.clear();
+
+        SchedulerLock row = repo.findById(name).orElseThrow();
+        LocalDateTime dbNow = (LocalDateTime) em.createNativeQuery("SELECT CURRENT_TIMESTAMP(6)", LocalDateTime.class)
+                .getSingleResult();
+        assertThat(row.getOwner()).isEqualTo("node-a");
+        assertThat(row.getLockedUntil()).isAfter(dbNow)
+                .isBeforeOrEqualTo(row.getHeartbeatAt().plusNanos(LEASE_MS * 1_000_000));
+    }
+
+    @Test
+    void expiredOrReleasedLeaseIsTakenOver() {
+        repo.insertIfAbsent(name, "node-a", 0);
+        assertThat(repo.tryAcquire(name, "node-b", LEASE_MS)).isEqualTo(1);
+
+        assertThat(repo.release(name, "node-a")).isZero();
+        assertThat(repo.release(name, "node-b")).isEqualTo(1);
+        assertThat(repo.tryAcquire(name, "node-a", LEASE_MS)).isEqualTo(1);
+    }
+}
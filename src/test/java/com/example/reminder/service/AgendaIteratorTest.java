@@ -0,0 +1,93 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgendaIteratorTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 1);
+
+    private final Event weekly = event(10L, LocalDate.of(2000, 1, 3), RecurrenceType.WEEKLY, null);
+    private final Event monthly = event(20L, LocalDate.of(2025, 1, 31), RecurrenceType.MONTHLY, LocalDate.of(2026, 6, 1));
+    private final Event single = event(5L, LocalDate.of(2026, 3, 2), RecurrenceType.NONE, null);
+    private final Event moved = event(7L, LocalDate.of(2026, 3, 4), RecurrenceType.WEEKLY, null);
+
+    // the weekly occurrence of Mar 9 was moved to Mar 4
+    private final Map<Long, Set<LocalDate>> exceptionDates = Map.of(10L, Set.of(LocalDate.of(2026, 3, 9)));
+
+    @Test
+    void sourcesAreMergedInDateOrder() {
+        AgendaIterator agenda = agenda(new AgendaIterator.Position(FROM, 0L), List.of(single, moved));
+
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            EventResponse item = agenda.next();
+            items.add(item.getEventDate() + "#" + item.getId());
+        }
+
+        assertThat(items).containsExactly(
+                "2026-03-02#5", "2026-03-02#10", "2026-03-04#7", "2026-03-16#10",
+                "2026-03-23#10", "2026-03-28#20", "2026-03-30#10", "2026-04-06#10");
+    }
+
+    @Test
+    void resumingAfterAPositionContinuesWithoutGapsOrRepeats() {
+        AgendaIterator first = agenda(new AgendaIterator.Position(FROM, 0L), List.of(single, moved));
+        first.next();
+        first.next();
+        AgendaIterator.Position cursor = first.lastPosition();
+        assertThat(cursor).isEqualTo(new AgendaIterator.Position(LocalDate.of(2026, 3, 2), 10L));
+
+        // the second page only gets the single/moved events after the cursor from the repository
+        AgendaIterator second = agenda(cursor, List.of(moved));
+        assertThat(second.next().getEventDate()).isEqualTo(LocalDate.of(2026, 3, 4));
+        assertThat(second.next().getEventDate()).isEqualTo(LocalDate.of(2026, 3, 16));
+    }
+
+    @Test
+    void endedSeriesDropOutOfTheMerge() {
+        AgendaIterator agenda = new AgendaIterator(List.of(monthly), Map.of(), List.of(),
+                new AgendaIterator.Position(FROM, 0L), AgendaIteratorTest::occurrence);
+
+        List<LocalDate> dates = new ArrayList<>();
+        agenda.forEachRemaining(item -> dates.add(item.getEventDate()));
+
+        // Jan 31 drifted to the 28th after February
+        assertThat(dates).containsExactly(LocalDate.of(2026, 3, 28), LocalDate.of(2026, 4, 28),
+                LocalDate.of(2026, 5, 28));
+    }
+
+    private AgendaIterator agenda(AgendaIterator.Position after, List<Event> standalone) {
+        return new AgendaIterator(List.of(weekly, monthly), exceptionDates, standalone, after,
+                AgendaIteratorTest::occurrence);
+    }
+
+    private static EventResponse occurrence(Event master, LocalDate date) {
+        EventResponse dto = EventResponse.fromEntity(master);
+        dto.setEventDate(date);
+        return dto;
+    }
+
+    private static Event event(Long id, LocalDate date, RecurrenceType type, LocalDate end) {
+        Event e = new Event();
+        e.setId(id);
+        e.setEventDate(date);
+        e.setRecurrenceType(type);
+        e.setRecurrenceInterval(1);
+        e.setRecurrenceEndDate(end);
+        if (id == 7L) {
+            e.setException(true);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.reminder.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+
+/*
+ * Bytes allocated and time taken by one piece of code on the calling thread, for the benchmark harnesses.
+ * Uses the HotSpot ThreadMXBean allocation counter, which counts TLAB allocations as they are handed out.
+ */
+final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    record Sample(long bytes, long micros) {
+    }
+
+    private AllocationMeter() {
+    }
+
+    /** lowest bytes and time over {@code rounds} runs, after as many warmup runs for the JIT */
+    static Sample bestOf(int rounds, IntSupplier run) {
+        long bytes = Long.MAX_VALUE;
+        long micros = Long.MAX_VALUE;
+        long sink = 0;
+        for (int i = 0; i < 2 * rounds; i++) {
+            long thread = Thread.currentThread().threadId();
+            long b0 = THREADS.getThreadAllocatedBytes(thread);
+            long t0 = System.nanoTime();
+            sink += run.getAsInt();
+            long t1 = System.nanoTime();
+            long b1 = THREADS.getThreadAllocatedBytes(thread);
+            if (i >= rounds) {
+                bytes = Math.min(bytes, b1 - b0);
+                micros = Math.min(micros, (t1 - t0) / 1_000);
+            }
+        }
+        // keeps the results alive so the runs cannot be optimized away
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return new Sample(bytes, micros);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalendarExpansionPoolTest {
+
+    private final CalendarExpansionPool pool = new CalendarExpansionPool(true, 4, 32, 366);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void mastersAreExpandedOnThePoolAndMergedInDateOrder() {
+        List<Event> masters = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            Event master = new Event();
+            master.setId(id);
+            masters.add(master);
+        }
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // master n every n days over a year
+        List<EventResponse> merged = pool.expand(masters, master -> {
+            threads.add(Thread.currentThread().getName());
+            List<EventResponse> occurrences = new ArrayList<>();
+            for (LocalDate d = start; d.getYear() == 2026; d = d.plusDays(master.getId())) {
+                EventResponse r = new EventResponse();
+                r.setId(master.getId());
+                r.setEventDate(d);
+                occurrences.add(r);
+            }
+            return occurrences;
+        });
+
+        List<EventResponse> sequential = new ArrayList<>(merged);
+        sequential.sort(Comparator.comparing(EventResponse::getEventDate).thenComparing(EventResponse::getId));
+
+        assertThat(merged).hasSize(sequential.size());
+        // equal dates keep master order, so the merge is the stable sort of all occurrences
+        assertThat(merged).containsExactlyElementsOf(sequential);
+        assertThat(threads).allMatch(name -> name.startsWith("calendar-expand-"));
+    }
+
+    @Test
+    void onlyLargeExpansionsAreForked() {
+        assertThat(pool.worthParallel(5, 3650)).isFalse();
+        assertThat(pool.worthParallel(40, 31)).isTrue();
+        assertThat(pool.worthParallel(12, 31)).isFalse();
+        assertThat(pool.worthParallel(12, 366)).isTrue();
+        assertThat(new CalendarExpansionPool(false, 0, 32, 366).worthParallel(1000, 3650)).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Timing harness for CalendarExpansionPool, not part of the default build:
+ *   mvn test -Dtest.excludedGroups= -Dtest=CalendarExpansionScalingTest
+ * Expands 256 daily series over ten years with parallelism 1 to 16 and prints the best of
+ * ROUNDS runs per setting next to the sequential loop. Numbers are only meaningful on a machine
+ * with at least as many cores as the highest parallelism.
+ */
+@Tag("benchmark")
+class CalendarExpansionScalingTest {
+
+    private static final int MASTERS = 256;
+    private static final int DAYS = 3650;
+    private static final int ROUNDS = 5;
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void expansionScalesWithParallelism() {
+        List<Event> masters = new ArrayList<>();
+        for (long id = 1; id <= MASTERS; id++) {
+            Event master = new Event();
+            master.setId(id);
+            masters.add(master);
+        }
+        Function<Event, List<EventResponse>> expandOne = master -> {
+            List<EventResponse> occurrences = new ArrayList<>(DAYS);
+            for (int day = 0; day < DAYS; day++) {
+                EventResponse r = new EventResponse();
+                r.setId(master.getId());
+                r.setEventDate(START.plusDays(day));
+                occurrences.add(r);
+            }
+            return occurrences;
+        };
+
+        long sequential = bestOf(() -> {
+            List<EventResponse> all = new ArrayList<>();
+            masters.forEach(m -> all.addAll(expandOne.apply(m)));
+            return all.size();
+        });
+        System.out.printf("cores=%d sequential %d ms%n", Runtime.getRuntime().availableProcessors(), sequential);
+
+        for (int parallelism : new int[]{1, 2, 4, 8, 16}) {
+            CalendarExpansionPool pool = new CalendarExpansionPool(true, parallelism, 2, 1);
+            try {
+                long ms = bestOf(() -> pool.expand(masters, expandOne).size());
+                System.out.printf("parallelism=%2d %5d ms  speedup %.2f%n", parallelism, ms, (double) sequential / ms);
+                assertThat(pool.expand(masters, expandOne)).hasSize(MASTERS * DAYS);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static long bestOf(IntSupplier run) {
+        long best = Long.MAX_VALUE;
+        // first round warms up the JIT
+        for (int i = 0; i <= ROUNDS; i++) {
+            long t0 = System.nanoTime();
+            run.getAsInt();
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            if (i > 0) {
+                best = Math.min(best, ms);
+            }
+        }
+        return Math.max(1, best);
+    }
+}
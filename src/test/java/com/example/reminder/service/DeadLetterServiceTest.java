@@ -0,0 +1,67 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.ReminderDeadLetter;
+import com.example.reminder.model.ReminderOutbox;
+import com.example.reminder.repository.ReminderDeadLetterRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private ReminderDeadLetterRepository deadLetterRepo;
+    @Mock
+    private ReminderOutboxRepository outboxRepo;
+
+    private DeadLetterService service;
+    private ReminderDeadLetter digest;
+
+    @BeforeEach
+    void setUp() {
+        service = new DeadLetterService(deadLetterRepo, outboxRepo);
+        digest = new ReminderDeadLetter(7L, "digest:1:2030-01-01:1", 1L, LocalDate.of(2030, 1, 1),
+                "a@example.com", "Reminders", "<p>hi</p>", 8, "550 mailbox unavailable", LocalDateTime.now(),
+                List.of("1:2030-01-01:1", "2:2030-01-01:3"));
+        when(deadLetterRepo.findById(7L)).thenReturn(Optional.of(digest));
+    }
+
+    @Test
+    void replayedDigestGetsItsItemKeysBack() {
+        service.replay(7L);
+
+        ArgumentCaptor<ReminderOutbox> mail = ArgumentCaptor.forClass(ReminderOutbox.class);
+        verify(outboxRepo).save(mail.capture());
+        assertThat(mail.getValue().getIdempotencyKey()).isEqualTo("digest:1:2030-01-01:1");
+        assertThat(mail.getValue().getItemKeys()).containsExactly("1:2030-01-01:1", "2:2030-01-01:3");
+        assertThat(mail.getValue().getAttempts()).isZero();
+        verify(outboxRepo).findEnqueuedItemKeys(
+                List.of("1:2030-01-01:1", "2:2030-01-01:3", "digest:1:2030-01-01:1"));
+        verify(deadLetterRepo).delete(digest);
+    }
+
+    @Test
+    void digestWithAReminderAlreadyQueuedIsNotEnqueuedTwice() {
+        when(outboxRepo.findEnqueuedItemKeys(anyCollection())).thenReturn(List.of("2:2030-01-01:3"));
+
+        service.replay(7L);
+
+        verify(outboxRepo, never()).save(any());
+        verify(deadLetterRepo).delete(digest);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.reminder.service;
+
+import com.example.reminder.dto.OutgoingEmail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailServiceBatchTest {
+
+    FakeSmtpServer smtp;
+    JavaMailSenderImpl sender;
+    MailExecutor mailExecutor;
+    EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.getPort());
+        sender.getJavaMailProperties().put("mail.smtp.from", "reminder@example.com");
+
+        mailExecutor = new MailExecutor(2, 10, 1000);
+        MailRateLimiter unlimited = new MailRateLimiter(false, MailRateLimiter.MailProvider.GENERIC, -1, -1, 0.8, 2, 1);
+        emailService = new EmailService(sender, mailExecutor, unlimited, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailExecutor.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    void sendsEveryBatchOverOneConnection() {
+        List<OutgoingEmail> sent = emailService.sendHtmlBatch(mails(12, -1));
+
+        assertThat(sent).hasSize(12);
+        assertThat(smtp.getDeliveredRecipients()).hasSize(12);
+        // 12 mails with batch size 5 -> 3 transports
+        assertThat(smtp.getConnectionCount()).isEqualTo(3);
+        assertThat(mailExecutor.metrics()).containsEntry("completedTasks", 3L).containsEntry("activeSends", 0);
+    }
+
+    @Test
+    void rejectedRecipientDoesNotFailTheRestOfTheBatch() {
+        List<OutgoingEmail> sent = emailService.sendHtmlBatch(mails(5, 2));
+
+        assertThat(sent).extracting(OutgoingEmail::getReferenceId).containsExactly(0L, 1L, 3L, 4L);
+        assertThat(smtp.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onlyAnUnreachableServerIsReportedAsTransportFailure() throws Exception {
+        List<OutgoingEmail> rejected = mails(1, 0);
+        assertThat(emailService.sendHtmlBatch(rejected)).isEmpty();
+        assertThat(rejected.get(0).getError()).isNotNull();
+        assertThat(rejected.get(0).isTransportFailure()).isFalse();
+
+        smtp.close();
+        List<OutgoingEmail> unreachable = mails(2, -1);
+        assertThat(emailService.sendHtmlBatch(unreachable)).isEmpty();
+        assertThat(unreachable).allMatch(OutgoingEmail::isTransportFailure);
+    }
+
+    @Test
+    void transactionalMailOvertakesReminderBatchesWaitingForTokens() throws Exception {
+        // one SMTP slot, provider burst 3 with 1 token reserved: reminders get 2 tokens, then 1 per 2 s
+        MailExecutor oneSlot = new MailExecutor(1, 10, 1000);
+        MailRateLimiter limiter = new MailRateLimiter(true, MailRateLimiter.MailProvider.GENERIC, 0.5, 3, 1.0, 1, 1);
+        EmailService limited = new EmailService(sender, oneSlot, limiter, 5);
+        try {
+            // a reminder backlog that needs far more tokens than there are
+            Thread.ofVirtual().start(() -> limited.sendHtmlBatch(mails(5, -1)));
+            Thread.ofVirtual().start(() -> limited.sendHtmlBatch(mails(5, -1)));
+            Thread.sleep(200);
+
+            long start = System.nanoTime();
+            limited.sendTransactionalHtml("reset@example.com", "Reset your password", "<p>reset</p>");
+
+            while (!smtp.getDeliveredRecipients().contains("reset@example.com")
+                    && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3)) {
+                Thread.sleep(20);
+            }
+            assertThat(smtp.getDeliveredRecipients()).contains("reset@example.com");
+            // no reminder batch got its tokens yet, they never held the slot while waiting
+            assertThat(smtp.getDeliveredRecipients()).allMatch(to -> to.startsWith("reset"));
+        } finally {
+            oneSlot.shutdown();
+        }
+    }
+
+    private List<OutgoingEmail> mails(int count, int badIndex) {
+        List<OutgoingEmail> mails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String to = (i == badIndex ? "bad" : "user") + i + "@example.com";
+            mails.add(new OutgoingEmail((long) i, to, "Reminder " + i, "<p>event " + i + "</p>"));
+        }
+        return mails;
+    }
+}
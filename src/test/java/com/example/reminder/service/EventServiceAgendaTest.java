@@ -0,0 +1,118 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.AgendaPageResponse;
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.User;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderOccurrenceRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import com.example.reminder.repository.ReminderRepository;
+import com.example.reminder.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceAgendaTest {
+
+    @Mock
+    EventRepository repo;
+    @Mock
+    ReminderRepository reminderRepo;
+    @Mock
+    UserRepository userRepo;
+    @Mock
+    EmailService emailService;
+    @Mock
+    ReminderScheduler reminderScheduler;
+    @Mock
+    ReminderOutboxRepository outboxRepo;
+    @Mock
+    ReminderOccurrenceRepository occurrenceRepo;
+    @Mock
+    ReminderOutboxRelay outboxRelay;
+    @Mock
+    ReminderCatchUpService catchUp;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    OccurrenceIndexService occurrenceIndex;
+
+    EventService service;
+    User user;
+    List<Event> singles;
+
+    @BeforeEach
+    void setUp() {
+        service = new EventService(repo, reminderRepo, userRepo, emailService, new NodeIdentity("node-a"),
+                reminderScheduler, outboxRepo, occurrenceRepo, outboxRelay,
+                new TransactionTemplate(transactionManager), catchUp, new CalendarCache(true, 100, 60), occurrenceIndex,
+                new CalendarExpansionPool(false, 0, 32, 366));
+
+        user = new User();
+        user.setId(7L);
+
+        // five single events, one a day from Mar 2 on
+        singles = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            Event e = new Event();
+            e.setId(id);
+            e.setUser(user);
+            e.setTitle("Single " + id);
+            e.setEventDate(LocalDate.of(2026, 3, 1).plusDays(id));
+            e.setRecurrenceType(RecurrenceType.NONE);
+            singles.add(e);
+        }
+        when(repo.findStandaloneAfter(eq(user), any(), anyLong(), any())).thenAnswer(inv -> {
+            LocalDate date = inv.getArgument(1);
+            long id = inv.getArgument(2);
+            Pageable page = inv.getArgument(3);
+            return singles.stream()
+                    .filter(e -> e.getEventDate().isAfter(date) || (e.getEventDate().equals(date) && e.getId() > id))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+    }
+
+    @Test
+    void pagesOfOnlySingleEventsAreChainedByTheirCursor() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            AgendaPageResponse page = service.getAgenda(user, LocalDate.of(2026, 3, 1), cursor, 2);
+            page.getItems().stream().map(EventResponse::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void aPageEndingOnTheLastEventHasNoCursor() {
+        AgendaPageResponse page = service.getAgenda(user, LocalDate.of(2026, 3, 1), null, 5);
+
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.getNextCursor()).isNull();
+    }
+}
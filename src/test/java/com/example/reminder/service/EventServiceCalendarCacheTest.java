@@ -0,0 +1,271 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.EventResponse;
+import com.example.reminder.dto.ReminderOffsetRequest;
+import com.example.reminder.exception.BadRequestException;
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.model.User;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderOccurrenceRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import com.example.reminder.repository.ReminderRepository;
+import com.example.reminder.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceCalendarCacheTest {
+
+    @Mock
+    EventRepository repo;
+    @Mock
+    ReminderRepository reminderRepo;
+    @Mock
+    UserRepository userRepo;
+    @Mock
+    EmailService emailService;
+    @Mock
+    ReminderScheduler reminderScheduler;
+    @Mock
+    ReminderOutboxRepository outboxRepo;
+    @Mock
+    ReminderOccurrenceRepository occurrenceRepo;
+    @Mock
+    ReminderOutboxRelay outboxRelay;
+    @Mock
+    ReminderCatchUpService catchUp;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    OccurrenceIndexService occurrenceIndex;
+
+    EventService service;
+    User user;
+    Event weekly;
+
+    @BeforeEach
+    void setUp() {
+        service = new EventService(repo, reminderRepo, userRepo, emailService, new NodeIdentity("node-a"),
+                reminderScheduler, outboxRepo, occurrenceRepo, outboxRelay,
+                new TransactionTemplate(transactionManager), catchUp, new CalendarCache(true, 100, 60), occurrenceIndex,
+                new CalendarExpansionPool(false, 0, 32, 366));
+
+        user = new User();
+        user.setId(7L);
+
+        weekly = new Event();
+        weekly.setId(42L);
+        weekly.setUser(user);
+        weekly.setTitle("Weekly");
+        weekly.setEventDate(LocalDate.of(2020, 1, 6));
+        weekly.setRecurrenceType(RecurrenceType.WEEKLY);
+        weekly.setRecurrenceInterval(1);
+    }
+
+    @Test
+    void monthsAreExpandedOnceAndServedFromTheCache() {
+        when(repo.findRecurringMasterAffectingRange(eq(user), any(), any())).thenReturn(List.of(weekly));
+        // the occurrence of Mar 9 was moved away
+        when(repo.findExceptionDates(List.of(42L))).thenReturn(List.<Object[]>of(new Object[]{42L, LocalDate.of(2026, 3, 9)}));
+
+        // month view: the visible grid spans parts of three months
+        List<EventResponse> view = service.getCalendarEvents(user, LocalDate.of(2026, 2, 23), LocalDate.of(2026, 4, 5));
+        assertThat(view).extracting(EventResponse::getEventDate).containsExactly(
+                LocalDate.of(2026, 2, 23), LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 16),
+                LocalDate.of(2026, 3, 23), LocalDate.of(2026, 3, 30));
+
+        // the three months were expanded with one query round over their whole span
+        verify(repo).findRecurringMasterAffectingRange(user, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 4, 30));
+
+        // week view inside the cached months needs no query at all
+        List<EventResponse> week = service.getCalendarEvents(user, LocalDate.of(2026, 3, 16), LocalDate.of(2026, 3, 22));
+        assertThat(week).extracting(EventResponse::getEventDate).containsExactly(LocalDate.of(2026, 3, 16));
+        verify(repo, times(1)).findRecurringMasterAffectingRange(any(), any(), any());
+        verify(repo, times(1)).findSinglesInRange(any(), any(), any());
+    }
+
+    @Test
+    void writesInvalidateOnlyTheMonthsTheyTouch() {
+        service.getCalendarEvents(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30));
+        verify(repo, times(1)).findSinglesInRange(any(), any(), any());
+
+        Event single = new Event();
+        single.setId(5L);
+        single.setUser(user);
+        single.setEventDate(LocalDate.of(2026, 5, 20));
+        single.setRecurrenceType(RecurrenceType.NONE);
+        when(repo.findById(5L)).thenReturn(Optional.of(single));
+
+        service.deleteEvent(user, 5L);
+
+        // months before the change are still cached, May is queried again on its own
+        service.getCalendarEvents(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30));
+        verify(repo).findSinglesInRange(user, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 31));
+        verify(repo, times(2)).findSinglesInRange(any(), any(), any());
+    }
+
+    @Test
+    void deletingAMovedOccurrenceAlsoRefreshesTheMonthItWasMovedFrom() {
+        service.getCalendarEvents(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30));
+
+        // the weekly occurrence of Mar 9 was moved to May 20
+        Event moved = new Event();
+        moved.setId(6L);
+        moved.setUser(user);
+        moved.setEventDate(LocalDate.of(2026, 5, 20));
+        moved.setRecurrenceType(RecurrenceType.NONE);
+        moved.setException(true);
+        moved.setOriginalDate(LocalDate.of(2026, 3, 9));
+        when(repo.findById(6L)).thenReturn(Optional.of(moved));
+
+        service.deleteEvent(user, 6L);
+
+        // March shows the series occurrence again
+        verify(occurrenceIndex).rebuild(user, LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 9));
+        service.getCalendarEvents(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30));
+        // March and May were both evicted, refilled with one query over their span
+        verify(repo).findSinglesInRange(user, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 5, 31));
+        verify(repo, times(2)).findSinglesInRange(any(), any(), any());
+    }
+
+    @Test
+    void addingAnEarlierReminderMovesTheShownReminderTime() {
+        LocalDate date = LocalDate.now().plusDays(10);
+        Event single = new Event();
+        single.setId(5L);
+        single.setUser(user);
+        single.setEventDate(date);
+        single.setRecurrenceType(RecurrenceType.NONE);
+        single.setReminderTime(date.atStartOfDay().minusHours(1));
+        when(repo.findById(5L)).thenReturn(Optional.of(single));
+        when(repo.findSinglesInRange(eq(user), any(), any())).thenReturn(List.of(single));
+        service.getCalendarEvents(user, date, date);
+
+        when(reminderRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(reminderRepo.findByEventIdOrderByOffsetMinutesDesc(5L))
+                .thenReturn(List.of(new Reminder(5L, 24 * 60), new Reminder(5L, 60)));
+        service.addReminder(user, 5L, new ReminderOffsetRequest(24 * 60));
+
+        // the calendar is read again and shows the day-before reminder
+        assertThat(service.getCalendarEvents(user, date, date)).extracting(EventResponse::getReminderTime)
+                .containsExactly(date.atStartOfDay().minusDays(1));
+        verify(repo).save(single);
+        verify(repo, times(2)).findSinglesInRange(any(), any(), any());
+    }
+
+    @Test
+    void streamsLongerThanTenYearsAreRejectedBeforeAnyQuery() {
+        LocalDate start = LocalDate.of(2026, 1, 1);
+
+        assertThatThrownBy(() -> service.streamCalendarEvents(user, start, start.plusDays(3660), e -> {}))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.validateStreamRange(start, start.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+        service.validateStreamRange(start, start.plusDays(3659));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void parallelExpansionKeepsSinglesAndSeriesInDateOrder() {
+        CalendarExpansionPool pool = new CalendarExpansionPool(true, 2, 2, 1);
+        EventService parallel = new EventService(repo, reminderRepo, userRepo, emailService, new NodeIdentity("node-a"),
+                reminderScheduler, outboxRepo, occurrenceRepo, outboxRelay,
+                new TransactionTemplate(transactionManager), catchUp, new CalendarCache(false, 100, 60), occurrenceIndex,
+                pool);
+        try {
+            List<Event> masters = new ArrayList<>();
+            for (long id = 1; id <= 12; id++) {
+                Event master = new Event();
+                master.setId(100 + id);
+                master.setUser(user);
+                master.setEventDate(LocalDate.of(2026, 1, 1).plusDays(id));
+                master.setRecurrenceType(RecurrenceType.WEEKLY);
+                master.setRecurrenceInterval(1);
+                masters.add(master);
+            }
+            Event late = new Event();
+            late.setId(5L);
+            late.setUser(user);
+            late.setEventDate(LocalDate.of(2026, 3, 30));
+            late.setRecurrenceType(RecurrenceType.NONE);
+            Event early = new Event();
+            early.setId(6L);
+            early.setUser(user);
+            early.setEventDate(LocalDate.of(2026, 1, 1));
+            early.setRecurrenceType(RecurrenceType.NONE);
+            when(repo.findSinglesInRange(eq(user), any(), any())).thenReturn(List.of(late, early));
+            when(repo.findRecurringMasterAffectingRange(eq(user), any(), any())).thenReturn(masters);
+
+            List<EventResponse> calendar = parallel.getCalendarEvents(user, LocalDate.of(2026, 1, 1),
+                    LocalDate.of(2026, 3, 31));
+
+            assertThat(calendar).extracting(EventResponse::getEventDate).isSorted();
+            assertThat(calendar).hasSize(151);
+            assertThat(calendar.get(0).getId()).isEqualTo(6L);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void cachedMonthsExpireSoWritesOfOtherNodesShowUp() throws InterruptedException {
+        CalendarCache cache = new CalendarCache(true, 100, 0);
+        YearMonth march = YearMonth.of(2026, 3);
+        cache.put(7L, Map.of(march, List.of(new EventResponse())), cache.version(7L));
+        Thread.sleep(5);
+
+        // nothing on this node invalidated March, the entry is dropped once its ttl passed
+        assertThat(cache.get(7L, List.of(march))).isEmpty();
+        assertThat(cache.metrics()).containsEntry("expirations", 1L);
+    }
+
+    @Test
+    void streamedCalendarMatchesTheCollectedOneInDateOrder() {
+        Event single = new Event();
+        single.setId(5L);
+        single.setUser(user);
+        single.setEventDate(LocalDate.of(2026, 3, 4));
+        single.setRecurrenceType(RecurrenceType.NONE);
+
+        when(repo.findRecurringMasterAffectingRange(eq(user), any(), any())).thenReturn(List.of(weekly));
+        when(repo.findSinglesInRange(eq(user), any(), any())).thenAnswer(inv -> {
+            LocalDate from = inv.getArgument(1);
+            LocalDate to = inv.getArgument(2);
+            return single.getEventDate().isBefore(from) || single.getEventDate().isAfter(to) ? List.of() : List.of(single);
+        });
+
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        LocalDate end = LocalDate.of(2026, 12, 31);
+        List<EventResponse> streamed = new ArrayList<>();
+        service.streamCalendarEvents(user, start, end, streamed::add);
+
+        assertThat(streamed).extracting(EventResponse::getEventDate).isSorted()
+                .containsExactlyInAnyOrderElementsOf(service.getCalendarEvents(user, start, end).stream()
+                        .map(EventResponse::getEventDate).toList());
+        assertThat(streamed).hasSize(53);
+        // series read once, single events window by window
+        verify(repo, times(2)).findRecurringMasterAffectingRange(any(), any(), any());
+        verify(repo, atLeast(12)).findSinglesInRange(any(), any(), any());
+    }
+}
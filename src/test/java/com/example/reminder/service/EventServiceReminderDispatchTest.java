@@ -0,0 +1,253 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.ReminderDispatchView;
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.model.ReminderOccurrence;
+import com.example.reminder.model.ReminderOutbox;
+import com.example.reminder.model.User;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderOccurrenceRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import com.example.reminder.repository.ReminderRepository;
+import com.example.reminder.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceReminderDispatchTest {
+
+    @Mock
+    EventRepository repo;
+    @Mock
+    ReminderRepository reminderRepo;
+    @Mock
+    UserRepository userRepo;
+    @Mock
+    EmailService emailService;
+    @Mock
+    ReminderScheduler reminderScheduler;
+    @Mock
+    ReminderOutboxRepository outboxRepo;
+    @Mock
+    ReminderOccurrenceRepository occurrenceRepo;
+    @Mock
+    ReminderOutboxRelay outboxRelay;
+    @Mock
+    ReminderCatchUpService catchUp;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    OccurrenceIndexService occurrenceIndex;
+
+    EventService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EventService(repo, reminderRepo, userRepo, emailService, new NodeIdentity("node-a"), reminderScheduler,
+                outboxRepo, occurrenceRepo, outboxRelay, new TransactionTemplate(transactionManager), catchUp,
+                new CalendarCache(true, 100, 60), occurrenceIndex,
+                new CalendarExpansionPool(false, 0, 32, 366));
+        ReflectionTestUtils.setField(service, "claimBatchSize", 500);
+        ReflectionTestUtils.setField(service, "claimLeaseSeconds", 300L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 250})
+    void dispatchQueryCountStaysConstantAsBatchGrows(int batchSize) {
+        List<ReminderDispatchView> due = dueReminders(batchSize);
+        when(reminderRepo.findClaimedReminders(eq("node-a"), any(), any(), any(), any()))
+                .thenReturn(due)
+                .thenReturn(List.of());
+        when(reminderRepo.lockClaimed(anyCollection(), eq("node-a"))).thenReturn(owned(due));
+        when(emailService.buildReminderHtml(anyString(), any(), any())).thenReturn("<p>html</p>");
+
+        service.checkReminders();
+
+        // one claim + one read per chunk, plus the empty round that ends the walk
+        verify(reminderRepo, times(2)).claimPendingReminders(eq("node-a"), any(), any(), any(), any(), any(), anyInt());
+        verify(reminderRepo, times(2)).findClaimedReminders(eq("node-a"), any(), any(), any(), any());
+        verify(reminderRepo).lockClaimed(argThat(ids -> ids.size() == batchSize), eq("node-a"));
+        verify(reminderRepo).markSentByIds(argThat(ids -> ids.size() == batchSize), eq("node-a"), any());
+        verifyNoMoreInteractions(reminderRepo);
+
+        // the wide events rows only get their summary flag, in one statement
+        verify(repo).markReminderDoneForEvents(argThat(ids -> ids.size() == batchSize), any());
+        verifyNoMoreInteractions(repo);
+
+        // recipient comes with the projection, no per-event user lookups
+        verifyNoInteractions(userRepo);
+        verify(outboxRepo).findEnqueuedItemKeys(argThat(keys -> keys.size() == batchSize));
+        verify(outboxRepo).saveAll(argThat(mails -> ((List<?>) mails).size() == batchSize));
+        verifyNoMoreInteractions(outboxRepo);
+
+        // one transaction per chunk, mails are left to the outbox relay
+        verify(transactionManager, times(1)).commit(any());
+        verify(emailService, never()).sendHtmlBatch(anyList());
+        verify(outboxRelay).trigger();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recurringSeriesReminderMovesToNextOccurrence() {
+        LocalDate occurrence = LocalDate.now().plusDays(1);
+        int offsetMinutes = 15 * 60;
+        LocalDateTime fireAt = Reminder.fireTimeFor(occurrence, offsetMinutes);
+
+        Reminder reminder = new Reminder(42L, offsetMinutes);
+        reminder.setId(5L);
+        reminder.setOccurrenceDate(occurrence);
+        reminder.setFireAt(fireAt);
+        reminder.setClaimOwner("node-a");
+
+        ReminderDispatchView due = new ReminderDispatchView(5L, 42L, "Weekly", occurrence, null, fireAt, 7L,
+                "user@example.com", RecurrenceType.WEEKLY, 1, null);
+
+        when(reminderRepo.findClaimedReminders(eq("node-a"), any(), any(), any(), any()))
+                .thenReturn(List.of(due))
+                .thenReturn(List.of());
+        when(emailService.buildReminderHtml(anyString(), any(), any())).thenReturn("<p>html</p>");
+        // the following week is a moved occurrence with its own reminder
+        when(repo.findExceptionDates(any())).thenReturn(List.<Object[]>of(new Object[]{42L, occurrence.plusWeeks(1)}));
+        when(reminderRepo.lockClaimed(anyCollection(), eq("node-a"))).thenReturn(List.of(reminder));
+        when(reminderRepo.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.checkReminders();
+
+        assertThat(reminder.getOccurrenceDate()).isEqualTo(occurrence.plusWeeks(2));
+        assertThat(reminder.getFireAt()).isEqualTo(fireAt.plusWeeks(2));
+        assertThat(reminder.isSent()).isFalse();
+        assertThat(reminder.getClaimOwner()).isNull();
+
+        verify(reminderRepo, never()).markSentByIds(anyList(), anyString(), any());
+        verify(occurrenceRepo).saveAll(argThat(rows -> ((List<ReminderOccurrence>) rows).size() == 1
+                && ((List<ReminderOccurrence>) rows).get(0).getOccurrenceDate().equals(occurrence)));
+        verify(reminderScheduler).schedule(reminder);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reminderWhoseLeaseWasLostIsNeitherAcknowledgedNorEnqueued() {
+        List<ReminderDispatchView> due = dueReminders(2);
+        when(reminderRepo.findClaimedReminders(eq("node-a"), any(), any(), any(), any()))
+                .thenReturn(due)
+                .thenReturn(List.of());
+        // reminder 2 was taken over by another node after its lease expired
+        when(reminderRepo.lockClaimed(anyCollection(), eq("node-a"))).thenReturn(owned(due.subList(0, 1)));
+        when(emailService.buildReminderHtml(anyString(), any(), any())).thenReturn("<p>html</p>");
+
+        service.checkReminders();
+
+        verify(reminderRepo).markSentByIds(eq(List.of(1L)), eq("node-a"), any());
+        verify(outboxRepo).saveAll(argThat(mails -> ((List<ReminderOutbox>) mails).size() == 1
+                && ((List<ReminderOutbox>) mails).get(0).getEventId().equals(1L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void digestLeavesOutRemindersAlreadyEnqueuedInAnotherDigest() {
+        ReflectionTestUtils.setField(service, "digestEnabled", true);
+        List<ReminderDispatchView> due = dueReminders(3).stream()
+                .map(e -> new ReminderDispatchView(e.getReminderId(), e.getEventId(), e.getTitle(), e.getEventDate(),
+                        null, e.getReminderTime(), 7L, "user@example.com", RecurrenceType.NONE, null, null))
+                .toList();
+        when(reminderRepo.findClaimedReminders(eq("node-a"), any(), any(), any(), any()))
+                .thenReturn(due)
+                .thenReturn(List.of());
+        when(reminderRepo.lockClaimed(anyCollection(), eq("node-a"))).thenReturn(owned(due));
+        // reminder 2 is part of a digest an earlier run wrote and that is not delivered yet
+        String second = ReminderOutbox.keyFor(2L, due.get(1).getEventDate(), 2L);
+        when(outboxRepo.findEnqueuedItemKeys(anyCollection())).thenReturn(List.of(second));
+        when(emailService.buildReminderDigestHtml(anyList())).thenReturn("<p>digest</p>");
+
+        service.checkReminders();
+
+        ArgumentCaptor<List<ReminderOutbox>> saved = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepo).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(mail -> {
+            assertThat(mail.getItemKeys()).containsExactly(ReminderOutbox.keyFor(1L, due.get(0).getEventDate(), 1L),
+                    ReminderOutbox.keyFor(3L, due.get(2).getEventDate(), 3L));
+            assertThat(mail.getSubject()).isEqualTo("Reminder: 2 upcoming events");
+        });
+        verify(emailService).buildReminderDigestHtml(List.of(due.get(0), due.get(2)));
+
+        // no window configured, nothing is claimed before it is due
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> dueUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reminderRepo, atLeastOnce()).claimPendingReminders(eq("node-a"), now.capture(), dueUntil.capture(),
+                any(), any(), any(), anyInt());
+        assertThat(dueUntil.getValue()).isEqualTo(now.getValue());
+    }
+
+    @Test
+    void deletedEventLeavesTheSchedulerAloneUntilItsTransactionCommitted() {
+        User user = new User();
+        user.setId(7L);
+        Event event = new Event();
+        event.setId(5L);
+        event.setUser(user);
+        event.setEventDate(LocalDate.now().plusDays(3));
+        event.setRecurrenceType(RecurrenceType.NONE);
+        Reminder reminder = new Reminder(5L, 60);
+        reminder.setId(11L);
+        when(repo.findById(5L)).thenReturn(Optional.of(event));
+        when(reminderRepo.findByEventIdOrderByOffsetMinutesDesc(5L)).thenReturn(List.of(reminder));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteEvent(user, 5L);
+            verify(reminderScheduler, never()).cancel(any());
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            verify(reminderScheduler).cancel(11L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // the rows lockClaimed finds when this node still owns the claims
+    private static List<Reminder> owned(List<ReminderDispatchView> due) {
+        List<Reminder> rows = new ArrayList<>();
+        for (ReminderDispatchView e : due) {
+            Reminder r = new Reminder(e.getEventId(), 0);
+            r.setId(e.getReminderId());
+            r.setOccurrenceDate(e.getEventDate());
+            r.setClaimOwner("node-a");
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    private List<ReminderDispatchView> dueReminders(int count) {
+        LocalDateTime reminderTime = LocalDateTime.now().minusMinutes(5);
+        List<ReminderDispatchView> list = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            list.add(new ReminderDispatchView(id, id, "Event " + id, LocalDate.now().plusDays(1), null,
+                    reminderTime, 7L, "user" + id + "@example.com", RecurrenceType.NONE, null, null));
+        }
+        return list;
+    }
+}
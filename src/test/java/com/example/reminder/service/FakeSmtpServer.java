@@ -0,0 +1,108 @@
+package com.example.reminder.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP stand-in: accepts every message, rejects recipients starting with "bad",
+ * and counts connections so tests can check how many messages share one transport.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = Executors.newCachedThreadPool();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+    FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        sessions.submit(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnectionCount() {
+        return connections.get();
+    }
+
+    List<String> getDeliveredRecipients() {
+        return recipients;
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sessions.submit(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+
+            reply(out, "220 localhost fake smtp");
+            String rcpt = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String cmd = line.toUpperCase();
+                if (cmd.startsWith("EHLO") || cmd.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (cmd.startsWith("MAIL FROM")) {
+                    rcpt = null;
+                    reply(out, "250 OK");
+                } else if (cmd.startsWith("RCPT TO")) {
+                    if (cmd.contains("<BAD")) {
+                        reply(out, "550 mailbox unavailable");
+                    } else {
+                        rcpt = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        reply(out, "250 OK");
+                    }
+                } else if (cmd.equals("DATA")) {
+                    reply(out, "354 end with .");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // message body is not inspected
+                    }
+                    recipients.add(rcpt);
+                    reply(out, "250 OK queued");
+                } else if (cmd.startsWith("QUIT")) {
+                    reply(out, "221 bye");
+                    return;
+                } else {
+                    // RSET, NOOP, ...
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+}
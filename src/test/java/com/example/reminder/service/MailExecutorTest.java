@@ -0,0 +1,37 @@
+package com.example.reminder.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailExecutorTest {
+
+    // one running and one queued task at most
+    private final MailExecutor executor = new MailExecutor(1, 1, 200);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void failingGateGivesItsQueueSlotBack() throws Exception {
+        MailExecutor.Gate broken = () -> {
+            throw new IllegalStateException("limiter misconfigured");
+        };
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> executor.submit(() -> "sent", broken).get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+
+        // more failed tasks than admission slots, a healthy one is still admitted
+        assertThat(executor.submit(() -> "sent").get(1, TimeUnit.SECONDS)).isEqualTo("sent");
+        assertThat(executor.metrics()).containsEntry("queueDepth", 0);
+    }
+}
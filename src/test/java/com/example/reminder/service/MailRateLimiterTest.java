@@ -0,0 +1,61 @@
+package com.example.reminder.service;
+
+import com.example.reminder.service.MailRateLimiter.MailClass;
+import com.example.reminder.service.MailRateLimiter.MailProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailRateLimiterTest {
+
+    @Test
+    void reminderMailCannotTakeTheTransactionalReserve() throws Exception {
+        // burst 4, reserve 2, reminder bucket large enough -> only 2 reminders pass right away
+        MailRateLimiter limiter = new MailRateLimiter(true, MailProvider.GENERIC, 0.5, 4, 1.0, 2, 1);
+
+        limiter.acquire(MailClass.REMINDER);
+        limiter.acquire(MailClass.REMINDER);
+
+        CountDownLatch thirdReminder = new CountDownLatch(1);
+        Thread reminder = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire(MailClass.REMINDER);
+                thirdReminder.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        assertThat(thirdReminder.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+        // the reserved tokens are still there for transactional mail
+        long start = System.nanoTime();
+        limiter.acquire(MailClass.TRANSACTIONAL);
+        limiter.acquire(MailClass.TRANSACTIONAL);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100);
+
+        reminder.interrupt();
+    }
+
+    @Test
+    void replicasSplitTheProviderBudget() throws Exception {
+        // burst 4 for the cluster, 2 nodes -> 2 tokens here, 1 kept back for transactional mail
+        MailRateLimiter limiter = new MailRateLimiter(true, MailProvider.GENERIC, 0.5, 4, 1.0, 2, 2);
+
+        assertThat(limiter.metrics()).containsEntry("nodes", 2).containsEntry("providerTokens", 2.0);
+
+        limiter.acquire(MailClass.REMINDER);
+        CountDownLatch secondReminder = new CountDownLatch(1);
+        Thread reminder = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire(MailClass.REMINDER);
+                secondReminder.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertThat(secondReminder.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        reminder.interrupt();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.reminder.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Allocation harness for the compiled mail templates, not part of the default build:
+ *   mvn test -Dtest.excludedGroups= -Dtest=MailTemplateAllocationTest
+ * Renders 1000 reminder mails, once by String.formatted over the text block as EmailService used to,
+ * once through buildReminderHtml and its MailTemplate, and prints the allocated bytes and time of both.
+ */
+@Tag("benchmark")
+class MailTemplateAllocationTest {
+
+    private static final int MAILS = 1000;
+    private static final int ROUNDS = 20;
+
+    // the reminder text block of EmailService before MailTemplate
+    private static final String FORMATTED_SOURCE = """
+            <div style="font-family: Arial, sans-serif; background:#f4f4f5; padding:20px;">
+              <div style="max-width:520px; margin:0 auto; background:#ffffff; border-radius:12px; overflow:hidden; border:1px solid #e5e7eb;">
+                <div style="background:#2563eb; color:#fff; padding:16px 20px; font-size:18px; font-weight:600;">
+                  🔔 Reminder: %s
+                </div>
+                <div style="padding:20px;">
+                  <p style="margin:0 0 12px 0; color:#374151;">Hi,</p>
+                  <p style="margin:0 0 16px 0; color:#374151;">This is a friendly reminder for your event.</p>
+
+                  <table style="width:100%%; border-collapse:collapse; margin-top:10px;">
+                    <tr>
+                      <td style="padding:8px 0; color:#6b7280; width:110px;">Title:</td>
+                      <td style="padding:8px 0; color:#111827; font-weight:500;">%s</td>
+                    </tr>
+                    <tr>
+                      <td style="padding:8px 0; color:#6b7280;">Event date:</td>
+                      <td style="padding:8px 0; color:#111827;">%s</td>
+                    </tr>
+                    <tr>
+                      <td style="padding:8px 0; color:#6b7280; vertical-align:top;">Description:</td>
+                      <td style="padding:8px 0; color:#111827;">%s</td>
+                    </tr>
+                  </table>
+
+                  <p style="margin-top:20px; font-size:12px; color:#9ca3af;">
+                    You received this email because you created a reminder in ReminderApp.
+                  </p>
+                </div>
+              </div>
+            </div>
+            """;
+
+    @Test
+    void compiledTemplateAllocatesLessThanFormatted() {
+        EmailService emailService = new EmailService(null, null, null, 50);
+        LocalDate date = LocalDate.of(2030, 5, 17);
+
+        AllocationMeter.Sample formatted = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (int i = 0; i < MAILS; i++) {
+                n += FORMATTED_SOURCE.formatted("Dentist " + i, "Dentist " + i, date, "Bring the forms").length();
+            }
+            return n;
+        });
+        AllocationMeter.Sample compiled = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (int i = 0; i < MAILS; i++) {
+                n += emailService.buildReminderHtml("Dentist " + i, date, "Bring the forms").length();
+            }
+            return n;
+        });
+
+        System.out.printf("%d reminder mails: formatted %,d bytes %,d us, compiled template %,d bytes %,d us%n",
+                MAILS, formatted.bytes(), formatted.micros(), compiled.bytes(), compiled.micros());
+        assertThat(emailService.buildReminderHtml("Dentist", date, "Bring the forms"))
+                .isEqualTo(FORMATTED_SOURCE.formatted("Dentist", "Dentist", date, "Bring the forms"));
+        assertThat(compiled.bytes()).isLessThan(formatted.bytes());
+    }
+}
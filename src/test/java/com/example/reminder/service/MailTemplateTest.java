@@ -0,0 +1,39 @@
+package com.example.reminder.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailTemplateTest {
+
+    @Test
+    void rendersSlotsByNameAndEscapesValues() {
+        MailTemplate template = MailTemplate.compile("<h1>{{title}}</h1><p>{{title}} on {{date}}</p>{{{raw}}}",
+                "title", "date", "raw");
+
+        String html = template.render("<b>Tom & \"Jerry\"</b>", LocalDate.of(2030, 1, 2), "<i>kept</i>");
+
+        assertThat(html).isEqualTo("<h1>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;</h1>"
+                + "<p>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt; on 2030-01-02</p><i>kept</i>");
+    }
+
+    @Test
+    void matchesTheFormattedTemplateForPlainText() {
+        String source = "<td style=\"width:100%%\">%s</td><td>%s</td>";
+        MailTemplate template = MailTemplate.compile("<td style=\"width:100%\">{{a}}</td><td>{{b}}</td>", "a", "b");
+
+        assertThat(template.render("Dentist", null)).isEqualTo(source.formatted("Dentist", ""));
+        assertThat(template.render("x", 1)).isEqualTo(source.formatted("x", 1));
+    }
+
+    @Test
+    void rejectsUnknownSlotsAndWrongArity() {
+        assertThatThrownBy(() -> MailTemplate.compile("{{missing}}", "title"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MailTemplate.compile("{{title}}", "title").render())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
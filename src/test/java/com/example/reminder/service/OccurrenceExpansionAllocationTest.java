@@ -0,0 +1,92 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.RecurrenceType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Allocation harness for RecurrenceMath.occurrenceDays, not part of the default build:
+ *   mvn test -Dtest.excludedGroups= -Dtest=OccurrenceExpansionAllocationTest
+ * Expands 200 series of every recurrence type over a year view, once with the LocalDate stepping and
+ * HashSet of exception dates the calendar used before, once on epoch-day ints with a sorted exception
+ * array, and prints the allocated bytes and time of both.
+ */
+@Tag("benchmark")
+class OccurrenceExpansionAllocationTest {
+
+    private static final int SERIES = 200;
+    private static final int ROUNDS = 20;
+
+    private static final LocalDate VIEW_START = LocalDate.of(2027, 1, 1);
+    private static final LocalDate VIEW_END = LocalDate.of(2027, 12, 31);
+
+    private static final RecurrenceType[] TYPES = {
+            RecurrenceType.DAILY, RecurrenceType.WEEKLY, RecurrenceType.MONTHLY, RecurrenceType.YEARLY};
+
+    private record Series(LocalDate start, RecurrenceType type, int interval, LocalDate end, List<LocalDate> exceptions) {
+    }
+
+    @Test
+    void intExpansionAllocatesLessThanLocalDateStepping() {
+        Random random = new Random(42);
+        List<Series> series = new ArrayList<>();
+        for (int i = 0; i < SERIES; i++) {
+            RecurrenceType type = TYPES[i % TYPES.length];
+            LocalDate start = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2500));
+            List<LocalDate> exceptions = new ArrayList<>();
+            for (int e = 0; e < 4; e++) {
+                exceptions.add(VIEW_START.plusDays(random.nextInt(365)));
+            }
+            series.add(new Series(start, type, 1 + random.nextInt(2), null, exceptions));
+        }
+
+        AllocationMeter.Sample before = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (Series s : series) {
+                n += localDateStepping(s).size();
+            }
+            return n;
+        });
+        AllocationMeter.Sample after = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (Series s : series) {
+                n += RecurrenceMath.occurrenceDays(s.start(), s.type(), s.interval(), s.end(),
+                        RecurrenceMath.sortedEpochDays(s.exceptions()), VIEW_START, VIEW_END).length;
+            }
+            return n;
+        });
+
+        System.out.printf("%d series, year view: LocalDate stepping %,d bytes %,d us, epoch days %,d bytes %,d us%n",
+                SERIES, before.bytes(), before.micros(), after.bytes(), after.micros());
+        for (Series s : series) {
+            assertThat(RecurrenceMath.occurrenceDays(s.start(), s.type(), s.interval(), s.end(),
+                    RecurrenceMath.sortedEpochDays(s.exceptions()), VIEW_START, VIEW_END))
+                    .hasSize(localDateStepping(s).size());
+        }
+        assertThat(after.bytes()).isLessThan(before.bytes());
+    }
+
+    // the expansion of EventService before occurrenceDays: a LocalDate per step, exceptions in a HashSet
+    private static List<LocalDate> localDateStepping(Series s) {
+        Set<LocalDate> exceptionDates = new HashSet<>(s.exceptions());
+        List<LocalDate> list = new ArrayList<>();
+        LocalDate cursor = RecurrenceMath.firstOnOrAfter(s.start(), s.type(), s.interval(), VIEW_START);
+        LocalDate limit = s.end() != null && s.end().isBefore(VIEW_END) ? s.end() : VIEW_END;
+        while (!cursor.isAfter(limit)) {
+            if (!exceptionDates.contains(cursor)) {
+                list.add(cursor);
+            }
+            cursor = RecurrenceMath.addInterval(cursor, s.type(), s.interval());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.Event;
+import com.example.reminder.model.EventOccurrence;
+import com.example.reminder.model.OccurrenceHorizon;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.User;
+import com.example.reminder.repository.EventOccurrenceRepository;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.OccurrenceHorizonRepository;
+import com.example.reminder.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccurrenceIndexServiceTest {
+
+    @Mock
+    EventRepository eventRepo;
+    @Mock
+    EventOccurrenceRepository occurrenceRepo;
+    @Mock
+    OccurrenceHorizonRepository horizonRepo;
+    @Mock
+    UserRepository userRepo;
+    @Mock
+    SchedulerLockService schedulerLock;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    OccurrenceIndexService index;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        index = new OccurrenceIndexService(eventRepo, occurrenceRepo, horizonRepo, userRepo,
+                new TransactionTemplate(transactionManager), schedulerLock, true, 24);
+        user = new User();
+        user.setId(7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstReadMaterializesTheUserUpToTheHorizon() {
+        Event biweekly = new Event();
+        biweekly.setId(42L);
+        biweekly.setEventDate(LocalDate.now().minusYears(3));
+        biweekly.setRecurrenceType(RecurrenceType.WEEKLY);
+        biweekly.setRecurrenceInterval(2);
+        biweekly.setRecurrenceEndDate(biweekly.getEventDate().plusWeeks(6));
+
+        when(horizonRepo.findById(7L)).thenReturn(Optional.empty());
+        when(eventRepo.findFirstEventDate(user)).thenReturn(biweekly.getEventDate());
+        when(eventRepo.findRecurringMasterAffectingRange(eq(user), any(), any())).thenReturn(List.of(biweekly));
+        // the second occurrence was moved away
+        when(eventRepo.findExceptionDates(List.of(42L)))
+                .thenReturn(List.<Object[]>of(new Object[]{42L, biweekly.getEventDate().plusWeeks(2)}));
+
+        LocalDate end = LocalDate.now();
+        assertThat(index.findInRange(user, end.minusMonths(1), end)).isPresent();
+
+        ArgumentCaptor<List<EventOccurrence>> rows = ArgumentCaptor.forClass(List.class);
+        verify(occurrenceRepo).saveAll(rows.capture());
+        assertThat(rows.getValue()).extracting(EventOccurrence::getOccurrenceDate).containsExactly(
+                biweekly.getEventDate(), biweekly.getEventDate().plusWeeks(4), biweekly.getEventDate().plusWeeks(6));
+
+        ArgumentCaptor<OccurrenceHorizon> horizon = ArgumentCaptor.forClass(OccurrenceHorizon.class);
+        verify(horizonRepo).save(horizon.capture());
+        assertThat(horizon.getValue().getMaterializedUntil()).isEqualTo(LocalDate.now().plusMonths(24));
+    }
+
+    @Test
+    void rangesBeyondTheHorizonAreExpandedOnTheFly() {
+        LocalDate until = LocalDate.now().plusMonths(24);
+        when(horizonRepo.findById(7L)).thenReturn(Optional.of(new OccurrenceHorizon(7L, until)));
+
+        assertThat(index.findInRange(user, until.minusDays(3), until.plusDays(3))).isEmpty();
+        verifyNoInteractions(occurrenceRepo);
+    }
+
+    @Test
+    void writesRebuildOnlyMaterializedDatesOfMaterializedUsers() {
+        LocalDate until = LocalDate.now().plusMonths(24);
+        LocalDate from = LocalDate.now().minusDays(10);
+
+        when(horizonRepo.findById(7L)).thenReturn(Optional.empty());
+        index.rebuild(user, from, null);
+        verifyNoInteractions(occurrenceRepo);
+
+        when(horizonRepo.findById(7L)).thenReturn(Optional.of(new OccurrenceHorizon(7L, until)));
+        index.rebuild(user, from, null);
+        verify(occurrenceRepo).deleteForUserBetween(7L, from, until);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.RecurrenceType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceMathTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(1990, 1, 1);
+
+    @ParameterizedTest
+    @EnumSource(value = RecurrenceType.class, names = {"DAILY", "WEEKLY", "MONTHLY", "YEARLY"})
+    void seekMatchesSteppingThroughTheSeries(RecurrenceType type) {
+        Random random = new Random(type.ordinal() * 31L + 7);
+
+        for (int i = 0; i < 2_000; i++) {
+            // month ends and leap days are where stepping and month arithmetic part ways
+            LocalDate start = i % 4 == 0
+                    ? EPOCH.plusMonths(random.nextInt(480)).withDayOfMonth(1).plusMonths(1).minusDays(1 + random.nextInt(3))
+                    : EPOCH.plusDays(random.nextInt(365 * 40));
+            int interval = i % 10 == 0 ? 48 : 1 + random.nextInt(14);
+            LocalDate target = start.plusDays(random.nextInt(365 * 12) - 30);
+
+            assertThat(RecurrenceMath.firstOnOrAfter(start, type, interval, target))
+                    .as("%s every %d from %s, first on or after %s", type, interval, start, target)
+                    .isEqualTo(stepTo(start, type, interval, target));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RecurrenceType.class, names = {"DAILY", "WEEKLY", "MONTHLY", "YEARLY"})
+    void occurrenceDaysMatchSteppingThroughTheRange(RecurrenceType type) {
+        Random random = new Random(type.ordinal() * 17L + 3);
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = i % 3 == 0
+                    ? EPOCH.plusMonths(random.nextInt(480)).withDayOfMonth(1).plusMonths(1).minusDays(1 + random.nextInt(3))
+                    : EPOCH.plusDays(random.nextInt(365 * 40));
+            int interval = 1 + random.nextInt(6);
+            LocalDate rangeStart = start.plusDays(random.nextInt(365 * 5) - 60);
+            LocalDate rangeEnd = rangeStart.plusDays(random.nextInt(400));
+            LocalDate endDate = i % 4 == 0 ? rangeStart.plusDays(random.nextInt(200)) : null;
+
+            List<LocalDate> expected = new ArrayList<>();
+            for (LocalDate d = start; !d.isAfter(rangeEnd) && (endDate == null || !d.isAfter(endDate));
+                 d = RecurrenceMath.addInterval(d, type, interval)) {
+                if (!d.isBefore(rangeStart)) {
+                    expected.add(d);
+                }
+            }
+            // every third visible occurrence was moved away
+            Set<LocalDate> exceptions = new HashSet<>();
+            for (int j = 0; j < expected.size(); j += 3) {
+                exceptions.add(expected.get(j));
+            }
+            expected.removeAll(exceptions);
+
+            int[] days = RecurrenceMath.occurrenceDays(start, type, interval, endDate,
+                    RecurrenceMath.sortedEpochDays(exceptions), rangeStart, rangeEnd);
+
+            assertThat(Arrays.stream(days).mapToObj(LocalDate::ofEpochDay).toList())
+                    .as("%s every %d from %s in %s..%s", type, interval, start, rangeStart, rangeEnd)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void monthEndDriftIsKept() {
+        // Jan 31 -> Feb 29 -> Mar 29 -> ... when stepping month by month
+        LocalDate start = LocalDate.of(2024, 1, 31);
+
+        assertThat(RecurrenceMath.firstOnOrAfter(start, RecurrenceType.MONTHLY, 1, LocalDate.of(2024, 5, 1)))
+                .isEqualTo(LocalDate.of(2024, 5, 29));
+        assertThat(RecurrenceMath.firstOnOrAfter(LocalDate.of(2020, 2, 29), RecurrenceType.YEARLY, 1,
+                LocalDate.of(2024, 1, 1))).isEqualTo(LocalDate.of(2024, 2, 28));
+    }
+
+    @Test
+    void startOnOrAfterTargetIsTheFirstOccurrence() {
+        LocalDate start = LocalDate.of(2030, 6, 15);
+
+        assertThat(RecurrenceMath.firstOnOrAfter(start, RecurrenceType.DAILY, 3, start)).isEqualTo(start);
+        assertThat(RecurrenceMath.firstOnOrAfter(start, RecurrenceType.WEEKLY, 2, start.minusYears(1))).isEqualTo(start);
+    }
+
+    @Test
+    void nextOccurrencesSkipExceptionsAndStopAtTheEnd() {
+        LocalDate start = LocalDate.of(2024, 1, 31);
+        Set<LocalDate> moved = Set.of(LocalDate.of(2024, 6, 29));
+
+        assertThat(RecurrenceMath.nextOccurrences(start, RecurrenceType.MONTHLY, 1, LocalDate.of(2024, 8, 29),
+                moved, LocalDate.of(2024, 5, 1), 5))
+                .containsExactly(LocalDate.of(2024, 5, 29), LocalDate.of(2024, 7, 29), LocalDate.of(2024, 8, 29));
+
+        assertThat(RecurrenceMath.nextOccurrences(start, RecurrenceType.WEEKLY, 2, null,
+                Set.of(), LocalDate.of(2024, 2, 1), 2))
+                .containsExactly(LocalDate.of(2024, 2, 14), LocalDate.of(2024, 2, 28));
+    }
+
+    @Test
+    void singleEventIsItsOwnNextOccurrenceUntilItPassed() {
+        LocalDate date = LocalDate.of(2030, 6, 15);
+
+        assertThat(RecurrenceMath.nextOccurrences(date, RecurrenceType.NONE, 1, null, Set.of(), date, 3))
+                .containsExactly(date);
+        assertThat(RecurrenceMath.nextOccurrences(date, RecurrenceType.NONE, 1, null, Set.of(), date.plusDays(1), 3))
+                .isEmpty();
+    }
+
+    @Test
+    void skippedOccurrenceWithoutDateHasNoNextOccurrence() {
+        assertThat(RecurrenceMath.nextOccurrences(null, RecurrenceType.NONE, 1, null, Set.of(),
+                LocalDate.of(2030, 6, 15), 3)).isEmpty();
+    }
+
+    // the walk the calendar expansion used to do
+    private static LocalDate stepTo(LocalDate start, RecurrenceType type, int interval, LocalDate target) {
+        LocalDate cursor = start;
+        while (cursor.isBefore(target)) {
+            cursor = switch (type) {
+                case DAILY -> cursor.plusDays(interval);
+                case WEEKLY -> cursor.plusWeeks(interval);
+                case MONTHLY -> cursor.plusMonths(interval);
+                case YEARLY -> cursor.plusYears(interval);
+                default -> cursor;
+            };
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.RecurrenceType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Allocation harness for RecurrenceMath.firstOnOrAfter, not part of the default build:
+ *   mvn test -Dtest.excludedGroups= -Dtest=RecurrenceSeekAllocationTest
+ * Finds the first visible occurrence of 200 long-running series in a view of next year, once by
+ * stepping from the series start as the calendar used to, once with the seek, and prints the
+ * allocated bytes and time of both.
+ */
+@Tag("benchmark")
+class RecurrenceSeekAllocationTest {
+
+    private static final int SERIES = 200;
+    private static final int ROUNDS = 20;
+
+    private static final LocalDate VIEW_START = LocalDate.of(2027, 3, 1);
+
+    private static final RecurrenceType[] TYPES = {
+            RecurrenceType.DAILY, RecurrenceType.WEEKLY, RecurrenceType.MONTHLY, RecurrenceType.YEARLY};
+
+    private record Series(LocalDate start, RecurrenceType type, int interval) {
+    }
+
+    @Test
+    void seekAllocatesLessThanSteppingFromTheSeriesStart() {
+        Random random = new Random(42);
+        List<Series> series = new ArrayList<>();
+        for (int i = 0; i < SERIES; i++) {
+            // started between 2000 and 2020
+            LocalDate start = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(7300));
+            series.add(new Series(start, TYPES[i % TYPES.length], 1 + random.nextInt(3)));
+        }
+
+        AllocationMeter.Sample step = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (Series s : series) {
+                n += stepTo(s.start(), s.type(), s.interval(), VIEW_START).getDayOfMonth();
+            }
+            return n;
+        });
+        AllocationMeter.Sample seek = AllocationMeter.bestOf(ROUNDS, () -> {
+            int n = 0;
+            for (Series s : series) {
+                n += RecurrenceMath.firstOnOrAfter(s.start(), s.type(), s.interval(), VIEW_START).getDayOfMonth();
+            }
+            return n;
+        });
+
+        System.out.printf("%d series, first occurrence in %s: step %,d bytes %,d us, seek %,d bytes %,d us%n",
+                SERIES, VIEW_START, step.bytes(), step.micros(), seek.bytes(), seek.micros());
+        for (Series s : series) {
+            assertThat(RecurrenceMath.firstOnOrAfter(s.start(), s.type(), s.interval(), VIEW_START))
+                    .isEqualTo(stepTo(s.start(), s.type(), s.interval(), VIEW_START));
+        }
+        assertThat(seek.bytes()).isLessThan(step.bytes());
+    }
+
+    // the walk the calendar expansion used to do
+    private static LocalDate stepTo(LocalDate start, RecurrenceType type, int interval, LocalDate target) {
+        LocalDate cursor = start;
+        while (cursor.isBefore(target)) {
+            cursor = RecurrenceMath.addInterval(cursor, type, interval);
+        }
+        return cursor;
+    }
+}
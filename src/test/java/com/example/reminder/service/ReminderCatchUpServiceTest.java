@@ -0,0 +1,69 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.ReminderDispatchView;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.repository.ReminderRepository;
+import com.example.reminder.service.ReminderCatchUpService.StalePolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderCatchUpServiceTest {
+
+    @Mock
+    ReminderRepository repo;
+    @Mock
+    EventService eventService;
+    @Mock
+    ReminderOutboxRelay outboxRelay;
+
+    @Test
+    void backlogIsClassifiedByLateness() {
+        ReminderCatchUpService catchUp = new ReminderCatchUpService(repo, eventService, outboxRelay,
+                new NodeIdentity("node-a"), true, 5, 24, StalePolicy.COLLAPSE, 50, 60_000, 300);
+
+        LocalDateTime now = LocalDateTime.now();
+        ReminderDispatchView over = view(1L, LocalDate.now().minusDays(1), now.minusDays(2));
+        ReminderDispatchView stale = view(2L, LocalDate.now().plusDays(1), now.minusHours(30));
+        ReminderDispatchView late = view(3L, LocalDate.now().plusDays(1), now.minusHours(2));
+
+        when(repo.countOverdueReminders(any())).thenReturn(3L);
+        when(repo.findClaimedReminders(eq("node-a#catch-up"), any(), any(), any(), any()))
+                .thenReturn(List.of(over, stale, late))
+                .thenReturn(List.of());
+
+        assertThat(catchUp.isActive()).isTrue();
+        catchUp.run();
+
+        verify(repo, times(2)).claimPendingReminders(eq("node-a#catch-up"), any(), eq(catchUp.getCutoff()),
+                any(), any(), any(), eq(50));
+        verify(eventService).dispatchCatchUp(eq("node-a#catch-up"), any(),
+                eq(List.of(late)), eq(List.of(stale)), eq(List.of(over)));
+        verify(outboxRelay).trigger();
+
+        Map<String, Object> progress = catchUp.progress();
+        assertThat(progress).containsEntry("state", ReminderCatchUpService.State.DONE)
+                .containsEntry("sent", 1L)
+                .containsEntry("collapsed", 1L)
+                .containsEntry("skipped", 1L)
+                .containsEntry("percent", 100L);
+        assertThat(catchUp.isActive()).isFalse();
+    }
+
+    private static ReminderDispatchView view(Long id, LocalDate eventDate, LocalDateTime reminderTime) {
+        return new ReminderDispatchView(id, id, "Event " + id, eventDate, null, reminderTime, 7L,
+                "user@example.com", RecurrenceType.NONE, null, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.reminder.service;
+
+import com.example.reminder.model.Event;
+import com.example.reminder.model.RecurrenceType;
+import com.example.reminder.model.Reminder;
+import com.example.reminder.repository.EventRepository;
+import com.example.reminder.repository.ReminderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderMigrationTest {
+
+    @Mock
+    EventRepository eventRepo;
+    @Mock
+    ReminderRepository reminderRepo;
+    @Mock
+    EventService eventService;
+    @Mock
+    SchedulerLockService schedulerLock;
+
+    @Test
+    void onlyTheNodeHoldingTheLockCopiesReminders() {
+        Event legacy = new Event();
+        legacy.setId(5L);
+        legacy.setEventDate(LocalDate.of(2030, 6, 15));
+        legacy.setRecurrenceType(RecurrenceType.NONE);
+        legacy.setReminderTime(LocalDate.of(2030, 6, 14).atTime(9, 0));
+        when(eventRepo.findWithoutReminderRows(any())).thenReturn(List.of(legacy)).thenReturn(List.of());
+
+        when(schedulerLock.isLeader(ReminderMigration.MIGRATION_LOCK)).thenReturn(true, false);
+        ReminderMigration first = new ReminderMigration(eventRepo, reminderRepo, eventService, schedulerLock, true);
+        ReminderMigration second = new ReminderMigration(eventRepo, reminderRepo, eventService, schedulerLock, true);
+
+        first.migrateOnStartup();
+        second.migrateOnStartup();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reminder>> saved = ArgumentCaptor.forClass(List.class);
+        verify(reminderRepo, times(1)).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement()
+                .satisfies(r -> assertThat(r.getOffsetMinutes()).isEqualTo(15 * 60));
+        verify(schedulerLock, times(1)).release(ReminderMigration.MIGRATION_LOCK);
+    }
+
+    @Test
+    void disabledMigrationDoesNotTouchTheDatabase() {
+        new ReminderMigration(eventRepo, reminderRepo, eventService, schedulerLock, false).migrateOnStartup();
+
+        verifyNoInteractions(eventRepo, reminderRepo, schedulerLock);
+    }
+}
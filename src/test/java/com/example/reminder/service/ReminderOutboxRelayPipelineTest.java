@@ -0,0 +1,194 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.dto.OutgoingEmail;
+import com.example.reminder.model.ReminderDeadLetter;
+import com.example.reminder.model.ReminderOutbox;
+import com.example.reminder.repository.ReminderDeadLetterRepository;
+import com.example.reminder.repository.ReminderOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderOutboxRelayPipelineTest {
+
+    @Mock
+    private ReminderOutboxRepository outboxRepo;
+    @Mock
+    private ReminderDeadLetterRepository deadLetterRepo;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLock;
+
+    private ReminderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new ReminderOutboxRelay(outboxRepo, deadLetterRepo, emailService, new NodeIdentity("node-a"),
+                new TransactionTemplate(transactionManager), schedulerLock);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "pipelineDepth", 1);
+        ReflectionTestUtils.setField(relay, "claimLeaseSeconds", 300L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 8);
+        ReflectionTestUtils.setField(relay, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(relay, "retryMaxSeconds", 3600L);
+        relay.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    void sendsOutsideTransactionsAndAcknowledgesSentAndFailedRows() {
+        ReminderOutbox good = row(1L, "ok@example.com");
+        ReminderOutbox bad = row(2L, "bad@example.com");
+
+        when(outboxRepo.findClaimed(startsWith("node-a#"), any(), any()))
+                .thenReturn(List.of(good, bad))
+                .thenReturn(List.of());
+        when(emailService.sendHtmlBatch(anyList())).thenAnswer(inv -> {
+            List<OutgoingEmail> mails = inv.getArgument(0);
+            mails.get(1).setError("550 mailbox unavailable");
+            return List.of(mails.get(0));
+        });
+
+        relay.trigger();
+
+        verify(outboxRepo, timeout(2000)).deleteAllByIdInBatch(List.of(1L));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReminderOutbox>> retried = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepo, timeout(2000)).saveAll(retried.capture());
+        assertThat(retried.getValue()).containsExactly(bad);
+        assertThat(bad.getAttempts()).isEqualTo(1);
+        assertThat(bad.getLastError()).contains("550");
+        assertThat(bad.getNextAttemptAt()).isNotNull();
+        assertThat(bad.getClaimOwner()).isNull();
+
+        // each claimed batch gets its own lease token
+        verify(outboxRepo, timeout(2000).times(2)).claimBatch(startsWith("node-a#"), any(), any(), eq(2));
+        verify(transactionManager, timeout(2000)).commit(any());
+    }
+
+    @Test
+    void exhaustedDigestIsDeadLetteredWithItsItemKeys() {
+        ReminderOutbox digest = row(5L, "bad@example.com");
+        digest.setIdempotencyKey("digest:1:2030-01-01:1");
+        digest.setAttempts(7);
+
+        when(outboxRepo.findClaimed(startsWith("node-a#"), any(), any()))
+                .thenReturn(List.of(digest))
+                .thenReturn(List.of());
+        when(outboxRepo.findItemKeys(List.of(5L))).thenReturn(List.of(
+                new Object[]{5L, "1:2030-01-01:1"}, new Object[]{5L, "2:2030-01-01:3"}));
+        when(emailService.sendHtmlBatch(anyList())).thenAnswer(inv -> {
+            List<OutgoingEmail> mails = inv.getArgument(0);
+            mails.get(0).setError("550 mailbox unavailable");
+            return List.of();
+        });
+
+        relay.trigger();
+
+        verify(outboxRepo, timeout(2000)).deleteAllByIdInBatch(List.of(5L));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReminderDeadLetter>> dead = ArgumentCaptor.forClass(List.class);
+        verify(deadLetterRepo).saveAll(dead.capture());
+        assertThat(dead.getValue()).singleElement().satisfies(d -> {
+            assertThat(d.getIdempotencyKey()).isEqualTo("digest:1:2030-01-01:1");
+            assertThat(d.getItemKeys()).containsExactly("1:2030-01-01:1", "2:2030-01-01:3");
+            assertThat(d.getAttempts()).isEqualTo(8);
+        });
+    }
+
+    @Test
+    void rejectedRecipientsDoNotStallTheRelayButAnUnreachableServerDoes() {
+        when(outboxRepo.findClaimed(startsWith("node-a#"), any(), any()))
+                .thenReturn(List.of(row(1L, "bad@example.com")))
+                .thenReturn(List.of(row(2L, "ok@example.com")))
+                .thenReturn(List.of(row(3L, "ok@example.com")))
+                .thenReturn(List.of(row(4L, "ok@example.com")));
+        when(emailService.sendHtmlBatch(anyList())).thenAnswer(inv -> {
+            List<OutgoingEmail> mails = inv.getArgument(0);
+            mails.get(0).setError("550 mailbox unavailable");
+            return List.of();
+        }).thenReturn(List.of()).thenAnswer(inv -> {
+            List<OutgoingEmail> mails = inv.getArgument(0);
+            mails.get(0).setError("Mail server connection failed");
+            mails.get(0).setTransportFailure(true);
+            return List.of();
+        });
+
+        relay.trigger();
+
+        // the batch with only a rejected recipient is followed by the next ones,
+        // the unreachable server stops claiming until the next drain
+        verify(emailService, timeout(2000).times(3)).sendHtmlBatch(anyList());
+        verify(emailService, after(300).times(3)).sendHtmlBatch(anyList());
+    }
+
+    @Test
+    void shutdownStopsClaimingAndHandsQueuedBatchesBack() throws InterruptedException {
+        ReminderOutbox first = row(1L, "a@example.com");
+        ReminderOutbox queued = row(2L, "b@example.com");
+        ReminderOutbox waiting = row(3L, "c@example.com");
+
+        when(outboxRepo.findClaimed(startsWith("node-a#"), any(), any()))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(queued))
+                .thenReturn(List.of(waiting))
+                .thenReturn(List.of());
+        // SMTP hangs on the first batch: the second one waits in the queue, the third in the claim stage
+        CountDownLatch smtp = new CountDownLatch(1);
+        when(emailService.sendHtmlBatch(anyList())).thenAnswer(inv -> {
+            smtp.await();
+            return inv.getArgument(0);
+        });
+
+        relay.trigger();
+        verify(outboxRepo, timeout(2000).times(3)).findClaimed(startsWith("node-a#"), any(), any());
+
+        int inFlight = relay.drainForShutdown(Duration.ofMillis(200));
+
+        assertThat(inFlight).isEqualTo(1);
+        verify(outboxRepo, times(2)).saveAll(anyList());
+        assertThat(queued.getClaimOwner()).isNull();
+        assertThat(waiting.getClaimOwner()).isNull();
+        assertThat(first.getClaimOwner()).isNotNull();
+
+        // nothing is claimed after the drain started
+        relay.trigger();
+        verify(outboxRepo, after(200).times(3)).claimBatch(startsWith("node-a#"), any(), any(), eq(2));
+        smtp.countDown();
+    }
+
+    private static ReminderOutbox row(Long id, String recipient) {
+        ReminderOutbox o = new ReminderOutbox();
+        o.setId(id);
+        o.setRecipient(recipient);
+        o.setSubject("Reminder");
+        o.setHtmlBody("<p>hi</p>");
+        o.setClaimOwner("node-a#1");
+        return o;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.reminder.service;
+
+import com.example.reminder.repository.ReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    @Mock
+    ReminderRepository repo;
+    @Mock
+    EventService eventService;
+    @Mock
+    SchedulerLockService schedulerLock;
+
+    ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ReminderScheduler(repo, eventService, schedulerLock);
+        ReflectionTestUtils.setField(scheduler, "preloadHours", 6L);
+        when(repo.findReminderSchedule(any(), any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void sweepLockHolderDispatchesOverdueRemindersBetweenReconciliations() {
+        when(schedulerLock.isLeader(ReminderScheduler.SWEEP_LOCK)).thenReturn(true);
+        scheduler.start();
+        verify(eventService, timeout(2000).times(1)).checkReminders();
+
+        // nothing is due in the heap, reminders whose lease of another node ran out are only found by a sweep
+        scheduler.sweepOverdue();
+
+        verify(eventService, timeout(2000).times(2)).checkReminders();
+        verify(repo, times(1)).findReminderSchedule(any(), any());
+    }
+
+    @Test
+    void otherNodesLeaveTheSweepToTheLockHolder() {
+        when(schedulerLock.isLeader(ReminderScheduler.SWEEP_LOCK)).thenReturn(false);
+        scheduler.start();
+
+        scheduler.sweepOverdue();
+
+        verify(eventService, after(300).never()).checkReminders();
+    }
+}
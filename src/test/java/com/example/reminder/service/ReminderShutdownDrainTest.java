@@ -0,0 +1,71 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.repository.ReminderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderShutdownDrainTest {
+
+    @Mock
+    EventService eventService;
+    @Mock
+    ReminderScheduler reminderScheduler;
+    @Mock
+    ReminderCatchUpService catchUp;
+    @Mock
+    ReminderOutboxRelay outboxRelay;
+    @Mock
+    ReminderRepository reminderRepo;
+
+    ReminderShutdownDrain drain;
+
+    @BeforeEach
+    void setUp() {
+        drain = new ReminderShutdownDrain(eventService, reminderScheduler, catchUp, outboxRelay, reminderRepo,
+                new NodeIdentity("node-a"), 1);
+        lenient().when(catchUp.claimOwner()).thenReturn("node-a#catch-up");
+    }
+
+    @Test
+    void claimsOfStoppedWorkersAreHandedBack() throws Exception {
+        when(reminderScheduler.awaitTermination(any())).thenReturn(true);
+        when(catchUp.stopAndAwait(any())).thenReturn(true);
+
+        drain.drain();
+
+        verify(eventService).stopDispatching();
+        verify(reminderRepo).releaseClaims(List.of("node-a", "node-a#catch-up"));
+    }
+
+    @Test
+    void chunkStillRunningKeepsItsClaimsUntilTheLeaseRunsOut() throws Exception {
+        // the dispatch worker is still sending its chunk when the deadline is reached
+        when(reminderScheduler.awaitTermination(any())).thenReturn(false);
+        when(catchUp.stopAndAwait(any())).thenReturn(true);
+
+        drain.drain();
+
+        verify(reminderRepo).releaseClaims(List.of("node-a#catch-up"));
+    }
+
+    @Test
+    void nothingIsReleasedWhenNoWorkerStopped() throws Exception {
+        when(reminderScheduler.awaitTermination(any())).thenReturn(false);
+        when(catchUp.stopAndAwait(any())).thenReturn(false);
+
+        drain.drain();
+
+        verify(reminderRepo, never()).releaseClaims(anyCollection());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.reminder.service;
+
+import com.example.reminder.config.NodeIdentity;
+import com.example.reminder.model.SchedulerLock;
+import com.example.reminder.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchedulerLockServiceTest {
+
+    private static final long LEASE_MS = 200;
+
+    // scheduler_locks shared by both nodes, with the row semantics of the repository queries
+    private final Map<String, SchedulerLock> table = new HashMap<>();
+
+    private SchedulerLockService nodeA;
+    private SchedulerLockService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        SchedulerLockRepository repo = sharedLockTable();
+        nodeA = new SchedulerLockService(repo, new NodeIdentity("node-a"), true, LEASE_MS);
+        nodeB = new SchedulerLockService(repo, new NodeIdentity("node-b"), true, LEASE_MS);
+    }
+
+    @Test
+    void onlyOneNodeIsLeaderUntilItsLeaseRunsOut() throws InterruptedException {
+        assertThat(nodeA.isLeader("sweep")).isTrue();
+        assertThat(nodeB.isLeader("sweep")).isFalse();
+
+        // heartbeat keeps node-a in charge past its first lease
+        Thread.sleep(LEASE_MS / 2);
+        nodeA.heartbeat();
+        Thread.sleep(LEASE_MS / 2 + 20);
+        assertThat(nodeB.isLeader("sweep")).isFalse();
+        assertThat(nodeA.isLeader("sweep")).isTrue();
+
+        // node-a dies: no more heartbeats, node-b takes over once the lease expired
+        Thread.sleep(LEASE_MS + 20);
+        assertThat(nodeB.isLeader("sweep")).isTrue();
+
+        // a late heartbeat of the old leader notices it lost the lock
+        nodeA.heartbeat();
+        assertThat(nodeA.heldLocks()).isEmpty();
+        assertThat(nodeA.isLeader("sweep")).isFalse();
+        assertThat(nodeB.heldLocks()).containsExactly("sweep");
+    }
+
+    @Test
+    void releasedLockFailsOverImmediately() {
+        assertThat(nodeA.isLeader("sweep")).isTrue();
+        assertThat(nodeA.isLeader("relay")).isTrue();
+
+        nodeA.releaseAll();
+
+        assertThat(nodeB.isLeader("sweep")).isTrue();
+        assertThat(nodeB.isLeader("relay")).isTrue();
+        assertThat(nodeA.isLeader("sweep")).isFalse();
+    }
+
+    // the database clock of the real queries is the clock of this JVM here
+    private SchedulerLockRepository sharedLockTable() {
+        SchedulerLockRepository repo = mock(SchedulerLockRepository.class);
+
+        when(repo.tryAcquire(anyString(), anyString(), anyLong())).thenAnswer(inv -> {
+            synchronized (table) {
+                SchedulerLock row = table.get(inv.<String>getArgument(0));
+                String owner = inv.getArgument(1);
+                LocalDateTime now = LocalDateTime.now();
+                if (row == null || row.getLockedUntil().isAfter(now) && !row.getOwner().equals(owner)) {
+                    return 0;
+                }
+                row.setOwner(owner);
+                row.setLockedUntil(now.plusNanos(inv.<Long>getArgument(2) * 1_000_000));
+                row.setHeartbeatAt(now);
+                return 1;
+            }
+        });
+        when(repo.insertIfAbsent(anyString(), anyString(), anyLong())).thenAnswer(inv -> {
+            synchronized (table) {
+                String name = inv.getArgument(0);
+                if (table.containsKey(name)) {
+                    return 0;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                table.put(name, new SchedulerLock(name, inv.getArgument(1),
+                        now.plusNanos(inv.<Long>getArgument(2) * 1_000_000), now));
+                return 1;
+            }
+        });
+        when(repo.renew(anyString(), anyString(), anyLong())).thenAnswer(inv -> {
+            synchronized (table) {
+                SchedulerLock row = table.get(inv.<String>getArgument(0));
+                if (row == null || !row.getOwner().equals(inv.getArgument(1))) {
+                    return 0;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                row.setLockedUntil(now.plusNanos(inv.<Long>getArgument(2) * 1_000_000));
+                row.setHeartbeatAt(now);
+                return 1;
+            }
+        });
+        when(repo.release(anyString(), anyString())).thenAnswer(inv -> {
+            synchronized (table) {
+                SchedulerLock row = table.get(inv.<String>getArgument(0));
+                if (row == null || !row.getOwner().equals(inv.getArgument(1))) {
+                    return 0;
+                }
+                row.setLockedUntil(LocalDateTime.now());
+                return 1;
+            }
+        });
+        return repo;
+    }
+}